@@ -0,0 +1,28 @@
+package hello.springtx;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * SpringtxBenchmarks
+ - JMH 벤치마크에서 사용하는 스프링 컨텍스트 생성 도우미
+ - bench 프로파일(application-bench.properties)로 트랜잭션 DEBUG/TRACE 로그를 끄고 측정
+ -> 로그 출력 비용이 측정 결과에 섞이지 않도록 하기 위함
+ */
+public final class SpringtxBenchmarks {
+
+    private SpringtxBenchmarks() {
+    }
+
+    /**
+     * properties : key=value 형식으로 추가 설정을 전달 (벤치마크 @Param 조합에 사용)
+     */
+    public static ConfigurableApplicationContext start(String... properties) {
+        return new SpringApplicationBuilder(SpringtxApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("bench")
+                .properties(properties)
+                .run();
+    }
+}
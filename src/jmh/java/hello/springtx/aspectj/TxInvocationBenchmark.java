@@ -0,0 +1,87 @@
+package hello.springtx.aspectj;
+
+import hello.springtx.SpringtxBenchmarks;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 프록시 vs AspectJ 위빙 호출 비용
+ - 같은 벤치마크를 프록시 모드와 위빙 모드로 각각 실행해서 비교
+ - plain : 트랜잭션이 없는 메서드 (기준값)
+ - supports : SUPPORTS 전파의 빈 메서드, 물리 트랜잭션 없이 트랜잭션 AOP 호출 경로 비용만 측정
+ - required : REQUIRED 전파의 빈 메서드, 커넥션 획득과 커밋 포함
+ - selfInvocation : 트랜잭션이 없는 메서드에서 REQUIRED 메서드를 내부 호출
+ -> 프록시 모드는 트랜잭션이 적용되지 않아 plain 과 비슷하고, 위빙 모드는 required 와 비슷해야 함
+
+ * 실행
+ - ./gradlew jmh -PjmhInclude=TxInvocationBenchmark
+ - ./gradlew jmh -PjmhInclude=TxInvocationBenchmark -PaspectjWeaving
+ */
+@State(Scope.Benchmark)
+public class TxInvocationBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private NoopService noopService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SpringtxBenchmarks.start();
+        noopService = context.getBean(NoopService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean plain() {
+        return noopService.plain();
+    }
+
+    @Benchmark
+    public boolean supports() {
+        return noopService.supports();
+    }
+
+    @Benchmark
+    public boolean required() {
+        return noopService.required();
+    }
+
+    @Benchmark
+    public boolean selfInvocation() {
+        return noopService.selfInvocation();
+    }
+
+    @Service
+    static class NoopService {
+
+        public boolean plain() {
+            return TransactionSynchronizationManager.isActualTransactionActive();
+        }
+
+        @Transactional(propagation = Propagation.SUPPORTS)
+        public boolean supports() {
+            return TransactionSynchronizationManager.isActualTransactionActive();
+        }
+
+        @Transactional
+        public boolean required() {
+            return TransactionSynchronizationManager.isActualTransactionActive();
+        }
+
+        public boolean selfInvocation() {
+            return required();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package hello.springtx.attribute;
+
+import hello.springtx.order.NotEnoughMoneyException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.transaction.interceptor.NoRollbackRuleAttribute;
+import org.springframework.transaction.interceptor.RollbackRuleAttribute;
+import org.springframework.transaction.interceptor.RuleBasedTransactionAttribute;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * rollbackFor/noRollbackFor 결정 비용
+ - rules : RuleBasedTransactionAttribute (규칙마다 예외 계층을 따라 올라가며 클래스 이름 비교)
+ - cached : RollbackRuleCachingTransactionAttributeSource 가 감싼 속성 (예외 클래스로 결정 조회)
+ - notEnoughMoney : 규칙에 바로 일치하는 예외, uncheckedIo : 계층이 깊고 어느 규칙에도 일치하지 않는 예외
+
+ * 실행
+ - ./gradlew jmh -PjmhInclude=RollbackRuleBenchmark
+ */
+@State(Scope.Benchmark)
+public class RollbackRuleBenchmark {
+
+    private RuleBasedTransactionAttribute rules;
+    private TransactionAttribute cached;
+
+    //예외 생성 비용이 섞이지 않도록 미리 만들어 둠
+    private final Throwable notEnoughMoney = new NotEnoughMoneyException("잔고 부족");
+    private final Throwable uncheckedIo = new UncheckedIOException(new IOException());
+
+    @Setup(Level.Trial)
+    public void setUp() throws NoSuchMethodException {
+        rules = new RuleBasedTransactionAttribute();
+        rules.setRollbackRules(List.of(
+                new RollbackRuleAttribute(IOException.class),
+                new RollbackRuleAttribute(IllegalStateException.class),
+                new NoRollbackRuleAttribute(NotEnoughMoneyException.class),
+                new NoRollbackRuleAttribute(IllegalArgumentException.class)));
+        cached = new RollbackRuleCachingTransactionAttributeSource((method, targetClass) -> rules)
+                .getTransactionAttribute(Object.class.getMethod("toString"), Object.class);
+    }
+
+    @Benchmark
+    public boolean rulesNotEnoughMoney() {
+        return rules.rollbackOn(notEnoughMoney);
+    }
+
+    @Benchmark
+    public boolean cachedNotEnoughMoney() {
+        return cached.rollbackOn(notEnoughMoney);
+    }
+
+    @Benchmark
+    public boolean rulesUncheckedIo() {
+        return rules.rollbackOn(uncheckedIo);
+    }
+
+    @Benchmark
+    public boolean cachedUncheckedIo() {
+        return cached.rollbackOn(uncheckedIo);
+    }
+}
@@ -0,0 +1,89 @@
+package hello.springtx.attribute;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SyntheticServices
+ - 메서드가 수천 개인 애플리케이션 크기에서 트랜잭션 속성 조회를 측정하기 위해 @Transactional 서비스 클래스를 실행 시점에 컴파일해서 로딩
+ - 짝수 번째 클래스 : 클래스 레벨 @Transactional(readOnly = true)
+ - 짝수 번째 메서드 : 메서드 레벨 @Transactional(rollbackFor = Exception.class)
+ -> 나머지 메서드는 클래스 설정을 따르거나(짝수 클래스) 트랜잭션이 없음(홀수 클래스)
+ */
+final class SyntheticServices {
+
+    static final String PACKAGE = "synthetic";
+
+    private SyntheticServices() {
+    }
+
+    static List<Class<?>> generate(int classCount, int methodsPerClass) throws IOException, ClassNotFoundException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("합성 서비스를 컴파일하려면 JDK 로 실행해야 합니다.");
+        }
+
+        List<JavaFileObject> sources = new ArrayList<>();
+        for (int i = 0; i < classCount; i++) {
+            sources.add(source("Service" + i, code(i, methodsPerClass)));
+        }
+
+        Path output = Files.createTempDirectory("synthetic-services");
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null)) {
+            List<String> options = List.of("-proc:none", "-d", output.toString(),
+                    "-classpath", System.getProperty("java.class.path"));
+            if (!compiler.getTask(null, fileManager, diagnostics, options, null, sources).call()) {
+                throw new IllegalStateException("합성 서비스 컴파일 실패 " + diagnostics.getDiagnostics());
+            }
+        }
+
+        //벤치마크가 끝날 때까지 클래스를 사용하므로 클래스 로더는 닫지 않음
+        URLClassLoader classLoader = new URLClassLoader(new URL[]{output.toUri().toURL()},
+                SyntheticServices.class.getClassLoader());
+        List<Class<?>> classes = new ArrayList<>();
+        for (int i = 0; i < classCount; i++) {
+            classes.add(classLoader.loadClass(PACKAGE + ".Service" + i));
+        }
+        return classes;
+    }
+
+    private static String code(int index, int methodsPerClass) {
+        StringBuilder code = new StringBuilder()
+                .append("package ").append(PACKAGE).append(";\n\n")
+                .append("import org.springframework.transaction.annotation.Transactional;\n\n");
+        if (index % 2 == 0) {
+            code.append("@Transactional(readOnly = true)\n");
+        }
+        code.append("public class Service").append(index).append(" {\n");
+        for (int m = 0; m < methodsPerClass; m++) {
+            if (m % 2 == 0) {
+                code.append("    @Transactional(rollbackFor = Exception.class)\n");
+            }
+            code.append("    public void m").append(m).append("() {\n    }\n");
+        }
+        return code.append("}\n").toString();
+    }
+
+    private static JavaFileObject source(String name, String code) {
+        return new SimpleJavaFileObject(URI.create("string:///" + PACKAGE + "/" + name + JavaFileObject.Kind.SOURCE.extension),
+                JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return code;
+            }
+        };
+    }
+}
@@ -0,0 +1,101 @@
+package hello.springtx.attribute;
+
+import hello.springtx.monitor.CompletionRecordingTransactionAttributeSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+import org.springframework.transaction.interceptor.TransactionAttributeSource;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 트랜잭션 속성 조회 비용 (호출 1회당)
+ - 대상 : 실행 시점에 만든 합성 서비스 클래스 (SyntheticServices, 클래스당 메서드 20개, 전체 메서드 수 = methods)
+ - 호출마다 미리 섞어둔 (클래스, 메서드) 를 차례로 조회 -> 한 메서드만 반복 조회할 때보다 큰 테이블의 캐시 미스가 드러남
+ - spring : AnnotationTransactionAttributeSource (호출마다 MethodClassKey 를 만들어 캐시 조회)
+ - recording : spring + CompletionRecordingTransactionAttributeSource (현재 설정, 호출마다 속성 객체 생성)
+ - precomputed : recording 을 시작 시점에 고정한 조회 테이블 (PrecomputedTransactionAttributeSource)
+ -> gc 프로파일러의 gc.alloc.rate.norm 으로 호출당 할당량을 비교
+
+ * 테이블 메모리 (freeze)
+ - 감싼 속성 소스는 이미 계산을 마친 상태로 재사용하므로 속성 계산 비용은 포함하지 않음
+ - gc.alloc.rate.norm = 테이블 하나를 만드는 데 할당한 바이트
+ -> 테이블이 보관하는 Method 복사본과 불변 Map 에 계산 중 임시 컬렉션까지 더한 값이므로 테이블 크기의 상한
+
+ * 실행
+ - ./gradlew jmh -PjmhInclude=TxAttributeLookupBenchmark
+ */
+@State(Scope.Benchmark)
+public class TxAttributeLookupBenchmark {
+
+    static final int METHODS_PER_CLASS = 20;
+
+    //조회 순서 배열 크기, 2의 거듭제곱이므로 비트 연산으로 순환
+    static final int LOOKUPS = 4096;
+
+    @Param({"1000", "5000"})
+    int methods;
+
+    private List<Class<?>> classes;
+    private TransactionAttributeSource spring;
+    private TransactionAttributeSource recording;
+    private PrecomputedTransactionAttributeSource precomputed;
+    private TransactionAttributeSource resolved;
+
+    private final Method[] lookupMethods = new Method[LOOKUPS];
+    private final Class<?>[] lookupClasses = new Class<?>[LOOKUPS];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        classes = SyntheticServices.generate(methods / METHODS_PER_CLASS, METHODS_PER_CLASS);
+
+        spring = new AnnotationTransactionAttributeSource(false);
+        recording = new CompletionRecordingTransactionAttributeSource(new AnnotationTransactionAttributeSource(false));
+        precomputed = new PrecomputedTransactionAttributeSource(
+                new CompletionRecordingTransactionAttributeSource(new AnnotationTransactionAttributeSource(false)));
+        precomputed.freeze(classes);
+        resolved = new AnnotationTransactionAttributeSource(false);
+        new PrecomputedTransactionAttributeSource(resolved).freeze(classes);
+
+        Random random = new Random(42);
+        for (int i = 0; i < LOOKUPS; i++) {
+            Class<?> targetClass = classes.get(random.nextInt(classes.size()));
+            lookupClasses[i] = targetClass;
+            lookupMethods[i] = targetClass.getMethod("m" + random.nextInt(METHODS_PER_CLASS));
+        }
+    }
+
+    @Benchmark
+    public TransactionAttribute spring() {
+        int i = next++ & (LOOKUPS - 1);
+        return spring.getTransactionAttribute(lookupMethods[i], lookupClasses[i]);
+    }
+
+    @Benchmark
+    public TransactionAttribute recording() {
+        int i = next++ & (LOOKUPS - 1);
+        return recording.getTransactionAttribute(lookupMethods[i], lookupClasses[i]);
+    }
+
+    @Benchmark
+    public TransactionAttribute precomputed() {
+        int i = next++ & (LOOKUPS - 1);
+        return precomputed.getTransactionAttribute(lookupMethods[i], lookupClasses[i]);
+    }
+
+    //테이블을 가진 객체를 반환해서 테이블 생성이 제거되지 않도록 함
+    @Benchmark
+    public PrecomputedTransactionAttributeSource freeze() {
+        PrecomputedTransactionAttributeSource source = new PrecomputedTransactionAttributeSource(resolved);
+        source.freeze(classes);
+        return source;
+    }
+}
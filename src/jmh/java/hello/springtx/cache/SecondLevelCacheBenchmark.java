@@ -0,0 +1,129 @@
+package hello.springtx.cache;
+
+import hello.springtx.SpringtxBenchmarks;
+import hello.springtx.order.Order;
+import hello.springtx.order.OrderRepository;
+import hello.springtx.propagation.Member;
+import hello.springtx.propagation.MemberRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 2차 캐시 조회 비용
+ - 같은 회원 HOT_MEMBERS 명, 주문 HOT_ORDERS 건을 계속 다시 조회
+ - findMember : username 조회 (쿼리 캐시 + member 영역)
+ - findOrder : id 조회 (order 영역)
+ - cache=false : 매번 H2 에서 조회 (기준)
+ - cache=true : 처음 한 번만 H2 에서 조회하고 이후는 2차 캐시에서 가져옴
+
+ * 확인 포인트
+ - sample 모드의 p0.50, p0.99 -> 조회 지연 시간
+ - cacheHits, cacheMisses : 반복(iteration)마다 2차 캐시 적중/실패 수 (cache.gets, JMH 결과에 보조 지표로 포함)
+ -> 적중률 = cacheHits / (cacheHits + cacheMisses), cache=false 이면 0
+ - gc 프로파일러의 gc.alloc.rate.norm -> 캐시에서 엔티티를 조립하는 비용 포함
+
+ * 실행
+ - ./gradlew jmh -PjmhInclude=SecondLevelCacheBenchmark
+ */
+@State(Scope.Benchmark)
+public class SecondLevelCacheBenchmark {
+
+    static final int HOT_MEMBERS = 100;
+    static final int HOT_ORDERS = 100;
+
+    @Param({"false", "true"})
+    public boolean cache;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private OrderRepository orderRepository;
+    private MeterRegistry registry;
+    private List<Long> orderIds;
+
+    /**
+     * 반복(iteration)마다 2차 캐시 적중/실패 수
+     - 반복 시작, 끝에 cache.gets 를 읽어서 차이를 기록 (벤치마크 메서드 호출마다 지표를 읽지 않도록 함)
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class CacheGets {
+        public long cacheHits;
+        public long cacheMisses;
+
+        private double hitsBefore;
+        private double missesBefore;
+
+        @Setup(Level.Iteration)
+        public void start(SecondLevelCacheBenchmark benchmark) {
+            cacheHits = 0;
+            cacheMisses = 0;
+            hitsBefore = benchmark.cacheGets("hit");
+            missesBefore = benchmark.cacheGets("miss");
+        }
+
+        @TearDown(Level.Iteration)
+        public void stop(SecondLevelCacheBenchmark benchmark) {
+            cacheHits = (long) (benchmark.cacheGets("hit") - hitsBefore);
+            cacheMisses = (long) (benchmark.cacheGets("miss") - missesBefore);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SpringtxBenchmarks.start(
+                "springtx.second-level-cache.enabled=" + cache,
+                "spring.datasource.url=jdbc:h2:mem:bench_cache_" + cache + ";DB_CLOSE_DELAY=-1");
+        memberRepository = context.getBean(MemberRepository.class);
+        orderRepository = context.getBean(OrderRepository.class);
+        registry = context.getBean(MeterRegistry.class);
+
+        List<Member> members = new ArrayList<>(HOT_MEMBERS);
+        for (int i = 0; i < HOT_MEMBERS; i++) {
+            members.add(new Member("hot-" + i));
+        }
+        memberRepository.saveAll(members);
+
+        List<Order> orders = new ArrayList<>(HOT_ORDERS);
+        for (int i = 0; i < HOT_ORDERS; i++) {
+            Order order = new Order();
+            order.setUsername("정상");
+            order.setPayStatus("완료");
+            orders.add(order);
+        }
+        orderIds = orderRepository.saveAll(orders).stream().map(Order::getId).toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Member findMember(CacheGets cacheGets) {
+        return memberRepository.find("hot-" + ThreadLocalRandom.current().nextInt(HOT_MEMBERS)).orElseThrow();
+    }
+
+    @Benchmark
+    public Order findOrder(CacheGets cacheGets) {
+        return orderRepository.findById(orderIds.get(ThreadLocalRandom.current().nextInt(HOT_ORDERS))).orElseThrow();
+    }
+
+    private double cacheGets(String result) {
+        return registry.find("cache.gets").tag("result", result).functionCounters().stream()
+                .mapToDouble(FunctionCounter::count)
+                .sum();
+    }
+}
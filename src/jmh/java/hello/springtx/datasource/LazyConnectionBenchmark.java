@@ -0,0 +1,82 @@
+package hello.springtx.datasource;
+
+import hello.springtx.SpringtxBenchmarks;
+import hello.springtx.propagation.Member;
+import hello.springtx.propagation.MemberRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 커넥션 지연 획득 처리량
+ - 스레드 8개가 커넥션 2개짜리 풀을 나눠 사용
+ - untouched : SQL 없이 작업(WORK_TOKENS)만 하는 트랜잭션 (TxBasicTest.BasicService.tx() 와 같은 경우)
+ - workThenQuery : 작업 후 조회 한 번 (joinV2 처럼 트랜잭션 안에서 DB 와 관계없는 작업을 먼저 하는 경우)
+ - lazy=false : 트랜잭션 시작시 커넥션을 가져와서 작업 시간 동안 잡고 있음
+ - lazy=true : 첫 SQL 실행 시점에 커넥션을 가져옴 (untouched 는 커넥션 풀을 사용하지 않음)
+ -> 커넥션 풀 대기 시간이 줄어든 만큼 처리량이 늘어남
+
+ * 실행
+ - ./gradlew jmh -PjmhInclude=LazyConnectionBenchmark
+ */
+@State(Scope.Benchmark)
+@Threads(8)
+public class LazyConnectionBenchmark {
+
+    static final int MEMBERS = 100;
+    static final long WORK_TOKENS = 10_000;
+
+    @Param({"false", "true"})
+    public boolean lazy;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private TransactionTemplate template;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SpringtxBenchmarks.start(
+                "springtx.datasource.lazy-connection.enabled=" + lazy,
+                "spring.datasource.url=jdbc:h2:mem:bench_lazy_" + lazy + ";DB_CLOSE_DELAY=-1",
+                "spring.datasource.hikari.maximum-pool-size=2");
+        memberRepository = context.getBean(MemberRepository.class);
+        template = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        List<Member> members = new ArrayList<>(MEMBERS);
+        for (int i = 0; i < MEMBERS; i++) {
+            members.add(new Member("lazy-" + i));
+        }
+        memberRepository.saveAll(members);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void untouched() {
+        template.executeWithoutResult(status -> Blackhole.consumeCPU(WORK_TOKENS));
+    }
+
+    @Benchmark
+    public Boolean workThenQuery() {
+        return template.execute(status -> {
+            Blackhole.consumeCPU(WORK_TOKENS);
+            return memberRepository.find("lazy-" + ThreadLocalRandom.current().nextInt(MEMBERS)).isPresent();
+        });
+    }
+}
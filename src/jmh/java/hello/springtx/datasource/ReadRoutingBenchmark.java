@@ -0,0 +1,81 @@
+package hello.springtx.datasource;
+
+import hello.springtx.SpringtxBenchmarks;
+import hello.springtx.propagation.Member;
+import hello.springtx.propagation.MemberRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 읽기 라우팅 처리량
+ - 읽기 스레드 8개(find, readOnly)와 쓰기 스레드 8개(save)가 동시에 실행
+ - routing=false : 커넥션 풀 하나(4개)를 읽기, 쓰기가 나눠 사용
+ - routing=true : primary(4개)는 쓰기, replica(4개)는 읽기 전용으로 사용
+ -> mixed:read 의 처리량 차이로 읽기가 쓰기와 커넥션을 경쟁하지 않을 때의 확장 효과를 확인
+
+ * 실행
+ - ./gradlew jmh -PjmhInclude=ReadRoutingBenchmark
+ */
+@State(Scope.Benchmark)
+public class ReadRoutingBenchmark {
+
+    static final int MEMBERS = 1000;
+
+    @Param({"false", "true"})
+    public boolean routing;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String url = "jdbc:h2:mem:bench_routing_" + routing + ";DB_CLOSE_DELAY=-1";
+        context = SpringtxBenchmarks.start(
+                "springtx.datasource.routing.enabled=" + routing,
+                "spring.datasource.url=" + url,
+                "spring.datasource.hikari.maximum-pool-size=4",
+                "springtx.datasource.replica.url=" + url,
+                "springtx.datasource.replica.hikari.maximum-pool-size=4");
+        memberRepository = context.getBean(MemberRepository.class);
+
+        List<Member> members = new ArrayList<>(MEMBERS);
+        for (int i = 0; i < MEMBERS; i++) {
+            members.add(new Member("read-" + i));
+        }
+        memberRepository.saveAll(members);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(8)
+    public boolean read() {
+        return memberRepository.find("read-" + ThreadLocalRandom.current().nextInt(MEMBERS)).isPresent();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(8)
+    public void write() {
+        memberRepository.save(new Member("write-" + sequence.incrementAndGet()));
+    }
+}
@@ -0,0 +1,116 @@
+package hello.springtx.order;
+
+import hello.springtx.SpringtxBenchmarks;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 주문 처리 비용 측정
+ - complete : 정상 승인 후 커밋
+ - notEnoughMoney : 체크 예외(NotEnoughMoneyException) 를 던지지만 커밋되는 비즈니스 예외 흐름
+ - notEnoughMoneyResult : 같은 결과를 예외 없이 OrderResult(WAITING) 로 반환 (orderWithResult)
+ - newException, newStacklessException : 예외 생성 비용만 비교 (스택 트레이스 캡처 여부)
+ - orderLoop, orderLoopResult, orderAll : 주문 1000건을 order() 반복 vs orderWithResult() 반복 vs orderAll() 청크 처리 (OperationsPerInvocation 으로 건당 결과)
+
+ * 실행
+ - ./gradlew jmh -PjmhInclude=OrderBenchmark
+ */
+@State(Scope.Benchmark)
+public class OrderBenchmark {
+
+    static final int BULK_SIZE = 1000;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SpringtxBenchmarks.start();
+        orderService = context.getBean(OrderService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void complete() throws NotEnoughMoneyException {
+        orderService.order(newOrder("정상"));
+    }
+
+    @Benchmark
+    public void notEnoughMoney(Blackhole blackhole) {
+        try {
+            orderService.order(newOrder("잔고부족"));
+        } catch (NotEnoughMoneyException e) {
+            blackhole.consume(e);
+        }
+    }
+
+    @Benchmark
+    public OrderResult notEnoughMoneyResult() {
+        return orderService.orderWithResult(newOrder("잔고부족"));
+    }
+
+    @Benchmark
+    public Exception newException() {
+        return new NotEnoughMoneyException("잔고가 부족합니다");
+    }
+
+    @Benchmark
+    public Exception newStacklessException() {
+        return NotEnoughMoneyException.stackless("잔고가 부족합니다");
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BULK_SIZE)
+    public void orderLoop(Blackhole blackhole) {
+        for (Order order : newOrders()) {
+            try {
+                orderService.order(order);
+            } catch (NotEnoughMoneyException e) {
+                blackhole.consume(e);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BULK_SIZE)
+    public void orderLoopResult(Blackhole blackhole) {
+        for (Order order : newOrders()) {
+            blackhole.consume(orderService.orderWithResult(order));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BULK_SIZE)
+    public List<OrderResult> orderAll() {
+        return orderService.orderAll(newOrders());
+    }
+
+    //10건 중 1건은 잔고부족
+    private List<Order> newOrders() {
+        List<Order> orders = new ArrayList<>(BULK_SIZE);
+        for (int i = 0; i < BULK_SIZE; i++) {
+            orders.add(newOrder(i % 10 == 0 ? "잔고부족" : "정상"));
+        }
+        return orders;
+    }
+
+    private Order newOrder(String username) {
+        Order order = new Order();
+        order.setUsername(username);
+        return order;
+    }
+}
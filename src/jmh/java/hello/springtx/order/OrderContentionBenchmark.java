@@ -0,0 +1,117 @@
+package hello.springtx.order;
+
+import hello.springtx.SpringtxBenchmarks;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 같은 주문 동시 결제 - 낙관적 락 vs 비관적 락
+ - 대기 주문 HOT_ORDERS 건을 threads 개의 스레드가 모두 결제 (주문 하나에 threads 건의 결제가 경쟁)
+ - optimistic : payWaiting (@Version 충돌시 새 트랜잭션으로 재시도)
+ - pessimistic : payWaitingLocked (select ... for update 로 대기)
+ - 결과는 주문 1건(threads 건의 결제가 경쟁)을 처리하는 처리량
+ - aborts 는 충돌/락 타임아웃으로 롤백 후 재시도한 횟수 (transaction.retry.attempts)
+ -> threads 가 늘어날수록 낙관적 락은 aborts 가, 비관적 락은 락 대기 시간이 늘어남
+
+ * 실행
+ - ./gradlew jmh -PjmhInclude=OrderContentionBenchmark
+ */
+@State(Scope.Benchmark)
+public class OrderContentionBenchmark {
+
+    static final int HOT_ORDERS = 20;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    @Param({"optimistic", "pessimistic"})
+    public String locking;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private OrderRepository orderRepository;
+    private MeterRegistry registry;
+    private ExecutorService executor;
+    private List<Long> orderIds;
+
+    /**
+     * 반복(iteration)마다 롤백 후 재시도한 횟수 합계
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Aborts {
+        public long aborts;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SpringtxBenchmarks.start(
+                "spring.datasource.url=jdbc:h2:mem:bench_contention_" + locking + "_" + threads + ";DB_CLOSE_DELAY=-1",
+                "spring.datasource.hikari.maximum-pool-size=" + Math.max(threads, 2));
+        orderService = context.getBean(OrderService.class);
+        orderRepository = context.getBean(OrderRepository.class);
+        registry = context.getBean(MeterRegistry.class);
+        executor = Executors.newFixedThreadPool(threads);
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareOrders() {
+        List<Order> orders = new ArrayList<>(HOT_ORDERS);
+        for (int i = 0; i < HOT_ORDERS; i++) {
+            Order order = new Order();
+            order.setUsername("정상");
+            order.setPayStatus("대기");
+            orders.add(order);
+        }
+        orderIds = orderRepository.saveAll(orders).stream().map(Order::getId).toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdown();
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(HOT_ORDERS)
+    public void pay(Aborts aborts) throws Exception {
+        double before = retryAttempts();
+
+        List<Callable<OrderResult>> payments = new ArrayList<>(HOT_ORDERS * threads);
+        for (Long orderId : orderIds) {
+            for (int i = 0; i < threads; i++) {
+                payments.add(() -> "optimistic".equals(locking)
+                        ? orderService.payWaiting(orderId)
+                        : orderService.payWaitingLocked(orderId));
+            }
+        }
+        for (Future<OrderResult> result : executor.invokeAll(payments)) {
+            result.get();
+        }
+
+        aborts.aborts += (long) (retryAttempts() - before);
+    }
+
+    private double retryAttempts() {
+        return registry.find("transaction.retry.attempts").counters().stream()
+                .mapToDouble(Counter::count)
+                .sum();
+    }
+}
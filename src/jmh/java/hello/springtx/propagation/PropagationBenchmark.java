@@ -0,0 +1,89 @@
+package hello.springtx.propagation;
+
+import hello.springtx.SpringtxBenchmarks;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 트랜잭션 전파 비용 측정
+ - joinV1 : 외부 트랜잭션(REQUIRED) + 회원 저장(REQUIRED 참여) + 로그 저장(REQUIRES_NEW)
+ - joinV2 : joinV1 과 같지만 로그 저장 예외를 복구하는 흐름
+ - logSave : 외부 트랜잭션 없이 REQUIRES_NEW 단독 호출
+ - memberSave : 외부 트랜잭션 없이 REQUIRED 단독 호출 (logSave 와 비교 기준)
+ - joinWithAsyncLog : 로그를 AsyncLogWriter 큐에 넣고 회원만 요청 트랜잭션에서 저장
+ - joinWithNestedLog : 로그를 REQUIRES_NEW 대신 NESTED(세이브포인트)로 저장, 커넥션 1개만 사용
+
+ * 확인 포인트
+ - joinV1 과 memberSave 의 차이 -> 외부 트랜잭션 중에 커넥션을 하나 더 획득하고 EntityManager 를 보류(suspend)하는 비용
+ - joinV2 와 joinWithNestedLog 의 차이 -> 두 번째 커넥션 획득 + 별도 커밋 vs 세이브포인트 생성/해제 + flush
+ - 요청당 커넥션 사용량은 NestedLogTest 에서 확인 (REQUIRES_NEW 2개, NESTED 1개)
+ - gc 프로파일러의 gc.alloc.rate.norm -> 호출 한 번당 할당량
+ - sample 모드의 p0.99 -> 지연 시간 꼬리
+
+ * 실행
+ - ./gradlew jmh -PjmhInclude=PropagationBenchmark
+ */
+@State(Scope.Benchmark)
+public class PropagationBenchmark {
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private ConfigurableApplicationContext context;
+    private MemberService memberService;
+    private MemberRepository memberRepository;
+    private LogRepository logRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SpringtxBenchmarks.start();
+        memberService = context.getBean(MemberService.class);
+        memberRepository = context.getBean(MemberRepository.class);
+        logRepository = context.getBean(LogRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void joinV1() {
+        memberService.joinV1(nextUsername());
+    }
+
+    @Benchmark
+    public void joinV2() {
+        memberService.joinV2(nextUsername());
+    }
+
+    @Benchmark
+    public void joinWithAsyncLog() {
+        memberService.joinWithAsyncLog(nextUsername());
+    }
+
+    @Benchmark
+    public void joinWithNestedLog() {
+        memberService.joinWithNestedLog(nextUsername());
+    }
+
+    @Benchmark
+    public void logSave() {
+        logRepository.save(new Log(nextUsername()));
+    }
+
+    @Benchmark
+    public void memberSave() {
+        memberRepository.save(new Member(nextUsername()));
+    }
+
+    private String nextUsername() {
+        return "bench-" + sequence.incrementAndGet();
+    }
+}
@@ -0,0 +1,72 @@
+package hello.springtx.propagation;
+
+import hello.springtx.SpringtxBenchmarks;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 대량 조회 메모리 사용량
+ - 회원 100,000 건을 findAll 로 한 번에 읽음
+ - readOnly=true : 읽기 전용 세션, FlushMode.MANUAL (스냅샷 없음, 커밋 시 변경 감지 없음)
+ - readOnly=false : 엔티티마다 스냅샷을 보관하고 커밋 시점에 전체 변경 감지
+
+ * 확인 포인트
+ - gc 프로파일러의 gc.alloc.rate.norm -> 조회 한 번당 할당량 (바이트)
+
+ * 실행
+ - ./gradlew jmh -PjmhInclude=ReadOnlyLoadBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ReadOnlyLoadBenchmark {
+
+    static final int MEMBERS = 100_000;
+
+    @Param({"true", "false"})
+    public boolean readOnly;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private TransactionTemplate template;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SpringtxBenchmarks.start();
+        memberRepository = context.getBean(MemberRepository.class);
+        template = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        template.setReadOnly(readOnly);
+
+        List<Member> members = new ArrayList<>(MEMBERS);
+        for (int i = 0; i < MEMBERS; i++) {
+            members.add(new Member("load-" + i));
+        }
+        memberRepository.saveAll(members);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int findAll() {
+        Integer size = template.execute(status -> memberRepository.findAll().size());
+        return (size != null ? size : 0);
+    }
+}
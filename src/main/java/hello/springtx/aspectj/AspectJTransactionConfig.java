@@ -0,0 +1,48 @@
+package hello.springtx.aspectj;
+
+import hello.springtx.propagation.MemberService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.AdviceMode;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+
+import java.lang.reflect.Field;
+
+/**
+ * AspectJTransactionConfig
+ - springtx.transaction.mode=aspectj 이면 @Transactional 을 프록시 대신 AspectJ 로 적용 (./gradlew -PaspectjWeaving)
+ - 컴파일 후 위빙으로 @Transactional 메서드 자체에 트랜잭션 코드가 삽입되고, 이 설정은 AnnotationTransactionAspect 에 트랜잭션 매니저를 연결함
+ -> 스프링 부트의 프록시 방식 설정(@EnableTransactionManagement)은 등록되지 않음
+
+ * 프록시 방식과 다른 점
+ - 내부 호출(this.internal())과 @PostConstruct 에서도 트랜잭션이 적용됨 (InternalCallV1Test, InitTxTest 의 문제가 없음)
+ - 빈을 프록시로 감싸지 않으므로 프록시 호출 비용이 없음 (TxInvocationBenchmark)
+ - new 로 만든 객체에도 적용됨, 스프링 빈이 아니어도 트랜잭션이 시작되므로 주의
+
+ * 주의
+ - 위빙하지 않은 클래스로 aspectj 모드를 사용하면 어떤 트랜잭션도 적용되지 않으므로, 시작 시점에 위빙 여부를 확인하고 실패시킴
+ */
+@Slf4j
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "springtx.transaction.mode", havingValue = "aspectj")
+@EnableTransactionManagement(mode = AdviceMode.ASPECTJ)
+public class AspectJTransactionConfig {
+
+    public AspectJTransactionConfig() {
+        if (!isWoven(MemberService.class)) {
+            throw new IllegalStateException("springtx.transaction.mode=aspectj 는 AspectJ 위빙이 필요합니다. ./gradlew -PaspectjWeaving 으로 빌드하세요");
+        }
+        log.info("@Transactional 적용 방식 : AspectJ 위빙");
+    }
+
+    //ajc 는 위빙한 클래스에 조인 포인트 정보를 담는 ajc$ 필드를 추가함
+    static boolean isWoven(Class<?> type) {
+        for (Field field : type.getDeclaredFields()) {
+            if (field.getName().startsWith("ajc$")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
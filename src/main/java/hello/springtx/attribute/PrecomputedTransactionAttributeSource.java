@@ -0,0 +1,122 @@
+package hello.springtx.attribute;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.interceptor.DefaultTransactionAttribute;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+import org.springframework.transaction.interceptor.TransactionAttributeSource;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * PrecomputedTransactionAttributeSource
+ - 시작 시점에 빈 클래스의 모든 메서드에 대해 트랜잭션 속성을 미리 계산하고 변경할 수 없는 조회 테이블로 고정(freeze)
+ - 호출 시점에는 (대상 클래스, 메서드) 로 테이블만 조회
+ -> 스프링 캐시(MethodClassKey 생성)와 감싼 속성 소스(CompletionRecordingTransactionAttributeSource 의 속성 객체 생성)를 호출마다 거치지 않음
+
+ * 계산 규칙
+ - 우선순위(클래스 메서드 > 클래스 > 인터페이스 메서드 > 인터페이스, TxLevelTest)와 rollbackFor/noRollbackFor(RollbackTest) 는
+   감싼 속성 소스(AnnotationTransactionAttributeSource)가 계산한 결과를 그대로 사용
+ - 테이블에 없는 클래스, 메서드(빈이 아닌 객체, 동적으로 만든 클래스 등)는 감싼 속성 소스에 위임
+ */
+public class PrecomputedTransactionAttributeSource implements TransactionAttributeSource {
+
+    //트랜잭션 속성이 없는 메서드 (Map 에는 null 을 넣을 수 없음)
+    private static final TransactionAttribute NONE = new DefaultTransactionAttribute();
+
+    private final TransactionAttributeSource delegate;
+    private volatile Map<Class<?>, Map<Method, TransactionAttribute>> table = Map.of();
+
+    public PrecomputedTransactionAttributeSource(TransactionAttributeSource delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public boolean isCandidateClass(Class<?> targetClass) {
+        return delegate.isCandidateClass(targetClass);
+    }
+
+    @Override
+    @Nullable
+    public TransactionAttribute getTransactionAttribute(Method method, @Nullable Class<?> targetClass) {
+        Map<Method, TransactionAttribute> methods = (targetClass != null ? table.get(targetClass) : null);
+        if (methods != null) {
+            TransactionAttribute attribute = methods.get(method);
+            if (attribute != null) {
+                return (attribute != NONE ? attribute : null);
+            }
+        }
+        return delegate.getTransactionAttribute(method, targetClass);
+    }
+
+    /**
+     * 주어진 클래스의 메서드(상속 메서드, 인터페이스 메서드 포함) 속성을 계산해서 테이블을 교체
+     - 트랜잭션 메서드가 하나도 없는 클래스는 테이블에 넣지 않음
+     */
+    public Report freeze(Collection<Class<?>> targetClasses) {
+        long start = System.nanoTime();
+        Map<Class<?>, Map<Method, TransactionAttribute>> frozen = new HashMap<>();
+        int entries = 0;
+        int transactional = 0;
+        for (Class<?> targetClass : targetClasses) {
+            if (!delegate.isCandidateClass(targetClass)) {
+                continue;
+            }
+            Map<Method, TransactionAttribute> methods = new HashMap<>();
+            boolean hasTransactional = false;
+            for (Method method : candidateMethods(targetClass)) {
+                TransactionAttribute attribute = delegate.getTransactionAttribute(method, targetClass);
+                methods.put(method, attribute != null ? attribute : NONE);
+                hasTransactional |= (attribute != null);
+            }
+            if (hasTransactional) {
+                frozen.put(targetClass, Map.copyOf(methods));
+                entries += methods.size();
+                transactional += (int) methods.values().stream().filter(a -> a != NONE).count();
+            }
+        }
+        this.table = Map.copyOf(frozen);
+        return new Report(frozen.size(), entries, transactional, System.nanoTime() - start);
+    }
+
+    //프록시가 받는 Method 는 클래스(CGLIB) 또는 인터페이스(JDK 프록시)에 선언된 메서드이므로 둘 다 등록
+    private static Collection<Method> candidateMethods(Class<?> targetClass) {
+        Set<Method> methods = new LinkedHashSet<>();
+        for (Method method : ReflectionUtils.getUniqueDeclaredMethods(targetClass, ReflectionUtils.USER_DECLARED_METHODS)) {
+            if (!Modifier.isStatic(method.getModifiers()) && !Modifier.isPrivate(method.getModifiers())) {
+                methods.add(method);
+            }
+        }
+        for (Class<?> ifc : ClassUtils.getAllInterfacesForClassAsSet(targetClass)) {
+            for (Method method : ifc.getMethods()) {
+                if (!Modifier.isStatic(method.getModifiers())) {
+                    methods.add(method);
+                }
+            }
+        }
+        return methods;
+    }
+
+    /**
+     * 사전 계산 결과
+     - 조회 테이블의 메모리 사용량은 TxAttributeLookupBenchmark.freeze 에서 gc 프로파일러로 측정
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class Report {
+
+        private final int classes;
+        private final int methods;
+        private final int transactionalMethods;
+        private final long elapsedNanos;
+    }
+}
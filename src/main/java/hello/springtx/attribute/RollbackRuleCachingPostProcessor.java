@@ -0,0 +1,35 @@
+package hello.springtx.attribute;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.core.PriorityOrdered;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.interceptor.TransactionAttributeSource;
+
+/**
+ * RollbackRuleCachingPostProcessor
+ - TransactionAspectSupport 의 속성 소스를 RollbackRuleCachingTransactionAttributeSource 로 감쌈
+
+ * 초기화 전(postProcessBeforeInitialization)에 감싸는 이유
+ - 다른 후처리기(TransactionMonitoringPostProcessor, TransactionAttributePrecomputer)는 초기화 후에 감싸므로
+   이 캐시가 가장 안쪽에 위치함 -> 완료 원인 기록(rollbackOn 호출)은 그대로 두고 규칙 판단만 캐시
+ */
+public class RollbackRuleCachingPostProcessor implements BeanPostProcessor, PriorityOrdered {
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof TransactionAspectSupport transactionAspect) {
+            TransactionAttributeSource source = transactionAspect.getTransactionAttributeSource();
+            if (source != null && !(source instanceof RollbackRuleCachingTransactionAttributeSource)) {
+                transactionAspect.setTransactionAttributeSource(new RollbackRuleCachingTransactionAttributeSource(source));
+            }
+        }
+        return bean;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,77 @@
+package hello.springtx.attribute;
+
+import org.springframework.core.MethodClassKey;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.interceptor.DelegatingTransactionAttribute;
+import org.springframework.transaction.interceptor.RuleBasedTransactionAttribute;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+import org.springframework.transaction.interceptor.TransactionAttributeSource;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * RollbackRuleCachingTransactionAttributeSource
+ - rollbackFor/noRollbackFor 규칙이 있는 속성의 커밋/롤백 결정을 예외 클래스별로 캐시
+ - RuleBasedTransactionAttribute 는 예외가 발생할 때마다 규칙마다 예외 계층을 따라 올라가며 클래스 이름을 비교함
+ -> 결정은 예외 클래스로만 정해지므로, 한 번 계산한 결과를 예외 클래스를 키로 보관하고 다음부터는 조회만 함
+ - 예외 클래스마다 처음 한 번은 RuleBasedTransactionAttribute 로 계산하므로 결정 규칙은 스프링과 같음
+ -> ex) OrderService.order 의 NotEnoughMoneyException 은 두 번째 발생부터 조회만 함
+
+ * 적용 대상
+ - RuleBasedTransactionAttribute 이면서 규칙이 있는 속성만 감쌈 (규칙이 없으면 RuntimeException, Error 여부만 확인하므로 충분히 빠름)
+ */
+public class RollbackRuleCachingTransactionAttributeSource implements TransactionAttributeSource {
+
+    private final TransactionAttributeSource delegate;
+    private final Map<MethodClassKey, TransactionAttribute> attributes = new ConcurrentHashMap<>();
+
+    public RollbackRuleCachingTransactionAttributeSource(TransactionAttributeSource delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public boolean isCandidateClass(Class<?> targetClass) {
+        return delegate.isCandidateClass(targetClass);
+    }
+
+    @Override
+    @Nullable
+    public TransactionAttribute getTransactionAttribute(Method method, @Nullable Class<?> targetClass) {
+        TransactionAttribute attribute = delegate.getTransactionAttribute(method, targetClass);
+        if (!hasRollbackRules(attribute)) {
+            return attribute;
+        }
+        //같은 메서드는 같은 캐시를 사용하도록 감싼 속성을 보관
+        return attributes.computeIfAbsent(new MethodClassKey(method, targetClass),
+                key -> new RollbackCachingTransactionAttribute((RuleBasedTransactionAttribute) attribute));
+    }
+
+    private static boolean hasRollbackRules(@Nullable TransactionAttribute attribute) {
+        return attribute != null
+                && attribute.getClass() == RuleBasedTransactionAttribute.class
+                && !((RuleBasedTransactionAttribute) attribute).getRollbackRules().isEmpty();
+    }
+
+    static class RollbackCachingTransactionAttribute extends DelegatingTransactionAttribute {
+
+        private final TransactionAttribute target;
+        private final Map<Class<?>, Boolean> decisions = new ConcurrentHashMap<>();
+
+        RollbackCachingTransactionAttribute(RuleBasedTransactionAttribute target) {
+            super(target);
+            this.target = target;
+        }
+
+        @Override
+        public boolean rollbackOn(Throwable ex) {
+            Boolean decision = decisions.get(ex.getClass());
+            if (decision == null) {
+                decision = target.rollbackOn(ex);
+                decisions.put(ex.getClass(), decision);
+            }
+            return decision;
+        }
+    }
+}
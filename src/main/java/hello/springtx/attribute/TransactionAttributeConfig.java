@@ -0,0 +1,31 @@
+package hello.springtx.attribute;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+
+/**
+ * TransactionAttributeConfig
+ - springtx.tx-attribute.precompute=false 이면 스프링 기본 속성 조회(호출 시점 계산 + 캐시)를 그대로 사용
+ - springtx.tx-attribute.rollback-cache=false 이면 rollbackFor/noRollbackFor 규칙을 예외마다 다시 계산
+ */
+@Configuration(proxyBeanMethods = false)
+public class TransactionAttributeConfig {
+
+    //BeanPostProcessor 는 다른 빈보다 먼저 만들어져야 하므로 static 으로 등록
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    @ConditionalOnProperty(name = "springtx.tx-attribute.precompute", havingValue = "true", matchIfMissing = true)
+    public static TransactionAttributePrecomputer transactionAttributePrecomputer() {
+        return new TransactionAttributePrecomputer();
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    @ConditionalOnProperty(name = "springtx.tx-attribute.rollback-cache", havingValue = "true", matchIfMissing = true)
+    public static RollbackRuleCachingPostProcessor rollbackRuleCachingPostProcessor() {
+        return new RollbackRuleCachingPostProcessor();
+    }
+}
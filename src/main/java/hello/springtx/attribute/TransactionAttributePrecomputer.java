@@ -0,0 +1,90 @@
+package hello.springtx.attribute;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.PriorityOrdered;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.interceptor.TransactionAttributeSource;
+import org.springframework.util.ClassUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TransactionAttributePrecomputer
+ - @Transactional 을 처리하는 TransactionAspectSupport(프록시의 TransactionInterceptor, AspectJ 의 AnnotationTransactionAspect)의
+   속성 소스를 PrecomputedTransactionAttributeSource 로 감쌈
+ - 모든 싱글톤 빈이 만들어진 뒤 빈 클래스 목록으로 조회 테이블을 계산하고, 결과(클래스, 메서드 수, 소요 시간)를 로그로 남김
+
+ * 순서
+ - TransactionMonitoringPostProcessor(LOWEST_PRECEDENCE - 1) 가 감싼 속성 소스를 한 번 더 감싸야
+   CompletionRecordingTransactionAttributeSource 가 만든 속성 객체까지 테이블에 고정됨
+ */
+@Slf4j
+public class TransactionAttributePrecomputer implements BeanPostProcessor, PriorityOrdered,
+        SmartInitializingSingleton, BeanFactoryAware {
+
+    private final List<PrecomputedTransactionAttributeSource> sources = new ArrayList<>();
+    private ConfigurableListableBeanFactory beanFactory;
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+        this.beanFactory = (ConfigurableListableBeanFactory) beanFactory;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof TransactionAspectSupport transactionAspect) {
+            TransactionAttributeSource source = transactionAspect.getTransactionAttributeSource();
+            if (source != null && !(source instanceof PrecomputedTransactionAttributeSource)) {
+                PrecomputedTransactionAttributeSource precomputed = new PrecomputedTransactionAttributeSource(source);
+                transactionAspect.setTransactionAttributeSource(precomputed);
+                sources.add(precomputed);
+            }
+        }
+        return bean;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        Set<Class<?>> targetClasses = beanClasses();
+        for (PrecomputedTransactionAttributeSource source : sources) {
+            PrecomputedTransactionAttributeSource.Report report = source.freeze(targetClasses);
+            log.info("트랜잭션 속성 사전 계산 beans={}, classes={}, methods={}, transactional={}, elapsed={}ms",
+                    targetClasses.size(), report.getClasses(), report.getMethods(), report.getTransactionalMethods(),
+                    TimeUnit.NANOSECONDS.toMillis(report.getElapsedNanos()));
+        }
+    }
+
+    //이미 만들어진 싱글톤은 프록시를 벗겨낸 대상 클래스, 나머지는 선언된 타입(CGLIB 하위 클래스면 원래 클래스)을 사용
+    private Set<Class<?>> beanClasses() {
+        Set<Class<?>> classes = new LinkedHashSet<>();
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            Class<?> type;
+            if (beanFactory.containsSingleton(beanName)) {
+                type = AopProxyUtils.ultimateTargetClass(beanFactory.getSingleton(beanName));
+            } else {
+                type = beanFactory.getType(beanName, false);
+            }
+            if (type != null) {
+                classes.add(ClassUtils.getUserClass(type));
+            }
+        }
+        return classes;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+}
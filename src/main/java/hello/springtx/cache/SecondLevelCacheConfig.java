@@ -0,0 +1,124 @@
+package hello.springtx.cache;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.util.Collections;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SecondLevelCacheConfig
+ - springtx.second-level-cache.enabled=true 이면 하이버네이트 2차 캐시(JCache + Caffeine)를 사용
+ - 영역(region)별로 최대 크기와 TTL(쓰기 후 만료)을 지정하고, 크기를 넘으면 Caffeine 이 자주 쓰이지 않는 항목부터 제거
+
+ * 영역
+ - member : Member 엔티티 (springtx.second-level-cache.member.*)
+ - order : Order 엔티티 (springtx.second-level-cache.order.*)
+ - default-query-results-region : 쿼리 캐시, MemberRepository 의 username 조회 (springtx.second-level-cache.query.*)
+ - default-update-timestamps-region : 테이블 별 마지막 수정 시각, 쿼리 캐시 무효화에 사용하므로 크기 제한과 만료 없음
+
+ * CacheManager
+ - 스프링 컨텍스트마다 별도의 CacheManager 를 만듦 (URI 가 같으면 JVM 안에서 공유되기 때문)
+ -> 테스트처럼 서로 다른 DB 를 사용하는 컨텍스트가 같은 캐시를 보지 않도록 하기 위함
+ - 하이버네이트는 종료할 때 전달받은 CacheManager 를 닫음
+ - 정의하지 않은 영역을 사용하면 시작 시점에 실패 (hibernate.javax.cache.missing_cache_strategy=fail)
+
+ * 지표 (JCacheMetrics)
+ - cache.gets (result=hit, miss), cache.puts, cache.evictions, cache.removals (태그 cache=영역 이름)
+ */
+@Slf4j
+@Configuration(proxyBeanMethods = false)
+public class SecondLevelCacheConfig {
+
+    public static final String MEMBER_REGION = "member";
+    public static final String ORDER_REGION = "order";
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "springtx.second-level-cache.enabled", havingValue = "true")
+    public CacheManager secondLevelCacheManager(
+            @Value("${springtx.second-level-cache.member.max-size:10000}") long memberMaxSize,
+            @Value("${springtx.second-level-cache.member.ttl-seconds:600}") long memberTtlSeconds,
+            @Value("${springtx.second-level-cache.order.max-size:10000}") long orderMaxSize,
+            @Value("${springtx.second-level-cache.order.ttl-seconds:60}") long orderTtlSeconds,
+            @Value("${springtx.second-level-cache.query.max-size:10000}") long queryMaxSize,
+            @Value("${springtx.second-level-cache.query.ttl-seconds:60}") long queryTtlSeconds) {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(
+                URI.create("springtx:second-level-cache:" + UUID.randomUUID()), getClass().getClassLoader());
+
+        cacheManager.createCache(MEMBER_REGION, region(memberMaxSize, memberTtlSeconds));
+        cacheManager.createCache(ORDER_REGION, region(orderMaxSize, orderTtlSeconds));
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, region(queryMaxSize, queryTtlSeconds));
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, unbounded());
+
+        log.info("2차 캐시 member(max={}, ttl={}s), order(max={}, ttl={}s), query(max={}, ttl={}s)",
+                memberMaxSize, memberTtlSeconds, orderMaxSize, orderTtlSeconds, queryMaxSize, queryTtlSeconds);
+        return cacheManager;
+    }
+
+    /**
+     * 2차 캐시를 사용하지 않으면 명시적으로 끔
+     - hibernate-jcache 가 클래스패스에 있으면 하이버네이트가 JCache 를 자동으로 찾아서 사용하기 때문
+     */
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(ObjectProvider<CacheManager> secondLevelCacheManager) {
+        return properties -> {
+            CacheManager cacheManager = secondLevelCacheManager.getIfAvailable();
+            if (cacheManager == null) {
+                properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, false);
+                properties.put(AvailableSettings.USE_QUERY_CACHE, false);
+                return;
+            }
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "springtx.second-level-cache.enabled", havingValue = "true")
+    public MeterBinder secondLevelCacheMetrics(CacheManager secondLevelCacheManager) {
+        return registry -> {
+            for (String cacheName : secondLevelCacheManager.getCacheNames()) {
+                Cache<Object, Object> cache = secondLevelCacheManager.getCache(cacheName);
+                JCacheMetrics.monitor(registry, cache, Collections.emptyList());
+            }
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> region(long maxSize, long ttlSeconds) {
+        CaffeineConfiguration<Object, Object> configuration = unbounded();
+        configuration.setMaximumSize(OptionalLong.of(maxSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(ttlSeconds)));
+        return configuration;
+    }
+
+    //하이버네이트가 캐시 항목을 직접 관리하므로 값을 복사하지 않음(store-by-reference), 지표를 위해 통계 사용
+    private static CaffeineConfiguration<Object, Object> unbounded() {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setStoreByValue(false);
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+}
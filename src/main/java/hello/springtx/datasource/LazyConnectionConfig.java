@@ -0,0 +1,48 @@
+package hello.springtx.datasource;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+
+import javax.sql.DataSource;
+
+/**
+ * LazyConnectionConfig
+ - springtx.datasource.lazy-connection.enabled=true 이면 dataSource 를 LazyConnectionDataSource 로 감쌈
+ - ReadOnlyRoutingConfig 는 설정과 관계없이 항상 LazyConnectionDataSource 를 사용
+
+ * 지표
+ - transaction.connection.checkouts (outcome=acquired) : 실제 커넥션 풀에서 커넥션을 가져온 수
+ - transaction.connection.checkouts (outcome=avoided) : SQL 을 실행하지 않아서 커넥션 풀을 사용하지 않은 수
+ */
+@Configuration(proxyBeanMethods = false)
+public class LazyConnectionConfig {
+
+    //BeanPostProcessor 는 다른 빈보다 먼저 만들어져야 하므로 static 으로 등록
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    @ConditionalOnProperty(name = "springtx.datasource.lazy-connection.enabled", havingValue = "true")
+    public static LazyConnectionPostProcessor lazyConnectionPostProcessor() {
+        return new LazyConnectionPostProcessor();
+    }
+
+    @Bean
+    public MeterBinder lazyConnectionMetrics(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof LazyConnectionDataSource lazy) {
+                FunctionCounter.builder("transaction.connection.checkouts", lazy, LazyConnectionDataSource::getAcquiredCount)
+                        .description("커넥션 풀에서 커넥션을 가져온 수")
+                        .tag("outcome", "acquired")
+                        .register(registry);
+                FunctionCounter.builder("transaction.connection.checkouts", lazy, LazyConnectionDataSource::getAvoidedCount)
+                        .description("SQL 을 실행하지 않고 끝나서 커넥션 풀을 사용하지 않은 수")
+                        .tag("outcome", "avoided")
+                        .register(registry);
+            }
+        };
+    }
+}
@@ -0,0 +1,163 @@
+package hello.springtx.datasource;
+
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LazyConnectionDataSource
+ - LazyConnectionDataSourceProxy 에 커넥션 요청 수와 실제 커넥션 획득 수를 세는 기능을 추가
+ - 트랜잭션 매니저(JpaTransactionManager, DataSourceTransactionManager)가 트랜잭션 시작시 받는 커넥션은 프록시
+ -> autoCommit, readOnly, 격리수준 설정은 기록만 해두고, 첫 Statement 생성 시점에 풀에서 실제 커넥션을 가져와 적용
+
+ * SQL 을 실행하지 않은 트랜잭션
+ - 풀에서 커넥션을 가져오지 않고, 커밋/롤백도 DB 로 보내지 않음
+ -> ex) TxBasicTest.BasicService.tx(), TxLevelTest.LevelService 처럼 트랜잭션 안에서 DB 를 사용하지 않는 경우
+ - 첫 SQL 이전의 작업 시간 동안에도 커넥션을 잡고 있지 않음 (첫 SQL 이후는 커밋까지 그대로 사용)
+
+ * 카운터
+ - requested : getConnection() 호출 수 (트랜잭션 매니저, 트랜잭션 밖의 조회 포함)
+ - acquired : 실제 커넥션 풀에서 커넥션을 가져온 수
+ - avoided : 실제 커넥션을 가져오지 않은 채로 close 된 수 (커넥션 풀을 사용하지 않고 끝난 수)
+ -> 진행 중인 트랜잭션은 끝날 때까지 세지 않으므로 값이 줄어들지 않음 (카운터로 내보냄)
+
+ * 실제 커넥션 획득을 요청한 커넥션 찾기
+ - 프록시 커넥션의 메서드를 호출하는 동안 현재 스레드에 호출 중인 커넥션(Checkout)을 기록
+ - 그 사이에 CountingDataSource 가 실제 커넥션을 가져오면 해당 커넥션에 표시 (지연 획득은 메서드 호출 안에서 같은 스레드로 일어남)
+ */
+public class LazyConnectionDataSource extends LazyConnectionDataSourceProxy {
+
+    //프록시 커넥션의 메서드를 호출 중인 커넥션 (REQUIRES_NEW 처럼 중첩되면 안쪽 커넥션)
+    private static final ThreadLocal<Checkout> CURRENT = new ThreadLocal<>();
+
+    private final CountingDataSource counting;
+    private final LongAdder requested = new LongAdder();
+    private final LongAdder avoided = new LongAdder();
+
+    public LazyConnectionDataSource(DataSource targetDataSource) {
+        this(new CountingDataSource(targetDataSource));
+    }
+
+    private LazyConnectionDataSource(CountingDataSource counting) {
+        super(counting);
+        this.counting = counting;
+        //기본 autoCommit, 격리수준을 확인하기 위해 가져온 커넥션은 제외
+        counting.acquired.reset();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        requested.increment();
+        return track(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        requested.increment();
+        return track(super.getConnection(username, password));
+    }
+
+    private Connection track(Connection lazyConnection) {
+        return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+                new Class<?>[]{ConnectionProxy.class}, new Checkout(lazyConnection));
+    }
+
+    public long getRequestedCount() {
+        return requested.sum();
+    }
+
+    public long getAcquiredCount() {
+        return counting.acquired.sum();
+    }
+
+    public long getAvoidedCount() {
+        return avoided.sum();
+    }
+
+    /**
+     * 프록시 커넥션 하나의 사용 기록
+     - 메서드 호출은 그대로 프록시 커넥션에 위임하고, close 시점에 실제 커넥션을 가져온 적이 없으면 avoided 증가
+     */
+    private class Checkout implements InvocationHandler {
+
+        private final Connection lazyConnection;
+        private boolean acquired;
+        private boolean closed;
+
+        Checkout(Connection lazyConnection) {
+            this.lazyConnection = lazyConnection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().equals("equals")) {
+                return proxy == args[0];
+            }
+            if (method.getName().equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            if (method.getName().equals("close") && !closed) {
+                closed = true;
+                if (!acquired) {
+                    avoided.increment();
+                }
+            }
+
+            Checkout previous = CURRENT.get();
+            CURRENT.set(this);
+            try {
+                return method.invoke(lazyConnection, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getTargetException();
+            } finally {
+                if (previous != null) {
+                    CURRENT.set(previous);
+                } else {
+                    CURRENT.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * 실제 커넥션 풀을 감싸서 커넥션 획득 수를 셈
+     - DelegatingDataSource 이므로 DataSourceUnwrapper 로 히카리 풀을 그대로 찾을 수 있음
+     */
+    private static class CountingDataSource extends DelegatingDataSource {
+
+        private final LongAdder acquired = new LongAdder();
+
+        CountingDataSource(DataSource targetDataSource) {
+            super(targetDataSource);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            markAcquired();
+            return super.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            markAcquired();
+            return super.getConnection(username, password);
+        }
+
+        private void markAcquired() {
+            acquired.increment();
+            Checkout checkout = CURRENT.get();
+            if (checkout != null) {
+                checkout.acquired = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package hello.springtx.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * LazyConnectionPostProcessor
+ - 스프링 부트가 등록한 dataSource 빈(히카리 풀)을 LazyConnectionDataSource 로 감쌈
+ - JPA, 트랜잭션 매니저 모두 감싼 dataSource 를 주입받음
+ - 이미 LazyConnectionDataSourceProxy 인 경우(ReadOnlyRoutingConfig)는 그대로 사용
+ - 라우팅 대상 풀(primaryDataSource, replicaDataSource)은 감싸지 않도록 dataSource 빈만 대상으로 함
+ */
+@Slf4j
+public class LazyConnectionPostProcessor implements BeanPostProcessor {
+
+    static final String DATA_SOURCE_BEAN_NAME = "dataSource";
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (DATA_SOURCE_BEAN_NAME.equals(beanName) && bean instanceof DataSource dataSource
+                && !(bean instanceof LazyConnectionDataSourceProxy)) {
+            log.info("커넥션 획득을 첫 SQL 실행 시점으로 미룹니다. dataSource={}", dataSource.getClass().getSimpleName());
+            return new LazyConnectionDataSource(dataSource);
+        }
+        return bean;
+    }
+}
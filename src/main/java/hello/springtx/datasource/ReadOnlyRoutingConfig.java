@@ -0,0 +1,69 @@
+package hello.springtx.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+
+/**
+ * ReadOnlyRoutingConfig
+ - springtx.datasource.routing.enabled=true 인 경우 primary, replica 두 개의 커넥션 풀을 만들고
+   readOnly 트랜잭션은 replica 로 보냄
+ - primary : spring.datasource.* (spring.datasource.hikari.*)
+ - replica : springtx.datasource.replica.url, username, password (springtx.datasource.replica.hikari.*)
+
+ * 등록되는 DataSource
+ - dataSource(@Primary) : LazyConnectionDataSource -> ReadOnlyRoutingDataSource -> primary / replica
+ -> 스프링 부트의 DataSource 자동 설정은 등록되지 않고, JPA 는 dataSource 를 사용
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "springtx.datasource.routing.enabled", havingValue = "true")
+public class ReadOnlyRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("springtx.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(@Value("${springtx.datasource.replica.url}") String url,
+                                              @Value("${springtx.datasource.replica.username:sa}") String username,
+                                              @Value("${springtx.datasource.replica.password:}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        //replica 커넥션은 읽기 전용으로만 사용
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReadOnlyRoutingDataSource routingDataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                                       @Qualifier("replicaDataSource") DataSource replicaDataSource) {
+        return new ReadOnlyRoutingDataSource(primaryDataSource, replicaDataSource);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadOnlyRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSource(routingDataSource);
+    }
+}
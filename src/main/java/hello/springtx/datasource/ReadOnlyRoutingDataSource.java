@@ -0,0 +1,50 @@
+package hello.springtx.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ReadOnlyRoutingDataSource
+ - 현재 트랜잭션이 readOnly 이면 replica, 아니면 primary 커넥션 풀에서 커넥션을 가져옴
+ - 트랜잭션 매니저는 커넥션을 먼저 획득하고 readOnly 정보를 나중에 동기화(TransactionSynchronizationManager)에 기록함
+ -> 반드시 LazyConnectionDataSourceProxy 로 감싸서 실제 커넥션 획득을 첫 SQL 실행 시점으로 미뤄야 함
+
+ * 참고
+ - readOnly 메서드가 쓰기 트랜잭션에 참여하면 외부 트랜잭션을 따라 primary 를 사용 (방금 쓴 데이터를 읽을 수 있음)
+ - replica 는 복제 지연이 있을 수 있으므로, 쓰기 직후 별도의 읽기 트랜잭션에서 바로 조회하는 흐름은 주의
+ */
+public class ReadOnlyRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route {
+        PRIMARY, REPLICA
+    }
+
+    private final Map<Route, AtomicLong> routedCounts = new EnumMap<>(Route.class);
+
+    public ReadOnlyRoutingDataSource(DataSource primary, DataSource replica) {
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        for (Route route : Route.values()) {
+            routedCounts.put(route, new AtomicLong());
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Route route = TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? Route.REPLICA : Route.PRIMARY;
+        routedCounts.get(route).incrementAndGet();
+        return route;
+    }
+
+    /**
+     * 라우팅 결정 횟수 (커넥션 획득 외에 unwrap 등으로 대상을 찾은 경우도 포함)
+     */
+    public long getRoutedCount(Route route) {
+        return routedCounts.get(route).get();
+    }
+}
@@ -0,0 +1,54 @@
+package hello.springtx.export;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * ExportController
+ - GET /export/logs?format=ndjson|csv, GET /export/members?format=ndjson|csv
+ - StreamingResponseBody : 응답을 버퍼에 모으지 않고 읽는 대로 바로 내려보냄
+ -> 트랜잭션은 응답을 쓰는 스레드에서 TableExporter 가 시작하고, 응답을 다 쓴 뒤 커밋
+ - format 은 대소문자 구분 없이 변환하고, 알 수 없는 값이면 400 응답 (StringToExportFormatConverter)
+ */
+@RestController
+@RequestMapping("/export")
+@RequiredArgsConstructor
+public class ExportController {
+
+    private final TableExporter exporter;
+
+    @GetMapping("/logs")
+    public ResponseEntity<StreamingResponseBody> logs(@RequestParam(defaultValue = "ndjson") ExportFormat format) {
+        return response(format, "logs", out -> exporter.exportLogs(writer(out), format));
+    }
+
+    @GetMapping("/members")
+    public ResponseEntity<StreamingResponseBody> members(@RequestParam(defaultValue = "ndjson") ExportFormat format) {
+        return response(format, "members", out -> exporter.exportMembers(writer(out), format));
+    }
+
+    private static ResponseEntity<StreamingResponseBody> response(ExportFormat format, String name, StreamingResponseBody body) {
+        String fileName = name + (format == ExportFormat.CSV ? ".csv" : ".ndjson");
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
+    }
+
+    private static Writer writer(OutputStream out) {
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+}
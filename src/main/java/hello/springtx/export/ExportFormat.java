@@ -0,0 +1,21 @@
+package hello.springtx.export;
+
+/**
+ * ExportFormat
+ - NDJSON : 한 줄에 JSON 객체 하나 ({"id":1,"message":"..."})
+ - CSV : 첫 줄은 헤더, 값에 쉼표/따옴표/줄바꿈이 있으면 따옴표로 감쌈
+ */
+public enum ExportFormat {
+    NDJSON("application/x-ndjson"),
+    CSV("text/csv");
+
+    private final String contentType;
+
+    ExportFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+}
@@ -0,0 +1,21 @@
+package hello.springtx.export;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * StringToExportFormatConverter
+ - 요청 파라미터 format=ndjson|csv 를 대소문자 구분 없이 ExportFormat 으로 변환
+ - 스프링 부트가 Converter 빈을 MVC 변환 서비스에 등록함
+ - 알 수 없는 값이면 IllegalArgumentException -> MethodArgumentTypeMismatchException 으로 변환되어 400 응답
+ */
+@Component
+public class StringToExportFormatConverter implements Converter<String, ExportFormat> {
+
+    @Override
+    public ExportFormat convert(String source) {
+        return ExportFormat.valueOf(source.trim().toUpperCase(Locale.ROOT));
+    }
+}
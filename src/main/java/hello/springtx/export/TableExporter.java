@@ -0,0 +1,105 @@
+package hello.springtx.export;
+
+import hello.springtx.propagation.Log;
+import hello.springtx.propagation.LogRepository;
+import hello.springtx.propagation.Member;
+import hello.springtx.propagation.MemberRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * TableExporter
+ - Log, Member 테이블 전체를 Writer 로 내보냄 (NDJSON, CSV)
+ - 리포지토리의 streamAll 로 한 건씩 읽고 바로 쓰기 때문에 건수와 관계없이 메모리 사용량이 일정함
+ - readOnly 트랜잭션 : 읽기 전용 엔티티로 로딩하고, 읽기 라우팅을 사용하면 replica 에서 조회
+ -> Stream 을 다 쓸 때까지 트랜잭션(커넥션)이 유지됨
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TableExporter {
+
+    private final LogRepository logRepository;
+    private final MemberRepository memberRepository;
+
+    @Transactional(readOnly = true)
+    public long exportLogs(Writer writer, ExportFormat format) throws IOException {
+        try (Stream<Log> logs = logRepository.streamAll()) {
+            long count = write(writer, format, "message", logs.iterator(), Log::getId, Log::getMessage);
+            log.info("log export format={} count={}", format, count);
+            return count;
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long exportMembers(Writer writer, ExportFormat format) throws IOException {
+        try (Stream<Member> members = memberRepository.streamAll()) {
+            long count = write(writer, format, "username", members.iterator(), Member::getId, Member::getUsername);
+            log.info("member export format={} count={}", format, count);
+            return count;
+        }
+    }
+
+    private static <T> long write(Writer writer, ExportFormat format, String column, Iterator<T> rows,
+                                  Function<T, Long> id, Function<T, String> value) throws IOException {
+        if (format == ExportFormat.CSV) {
+            writer.write("id," + column + "\n");
+        }
+
+        long count = 0;
+        while (rows.hasNext()) {
+            T row = rows.next();
+            if (format == ExportFormat.CSV) {
+                writer.write(id.apply(row) + "," + csv(value.apply(row)) + "\n");
+            } else {
+                writer.write("{\"id\":" + id.apply(row) + ",\"" + column + "\":" + json(value.apply(row)) + "}\n");
+            }
+            count++;
+        }
+        writer.flush();
+        return count;
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    private static String json(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
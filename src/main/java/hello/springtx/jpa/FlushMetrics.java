@@ -0,0 +1,91 @@
+package hello.springtx.jpa;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.FlushEvent;
+import org.hibernate.event.spi.FlushEventListener;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FlushMetrics
+ - 하이버네이트 flush 마다 flush 한 엔티티 수와 소요 시간을 기록
+ - 커밋 시점 flush(JpaTransactionManager 커밋)와 em.flush, 조회 전 자동 flush 가 모두 FLUSH 이벤트로 들어옴
+ -> 기본 리스너(DefaultFlushEventListener) 앞뒤에 리스너를 등록해서 시작 시각과 처리한 엔티티 수를 얻음
+ - 영속성 컨텍스트가 비어 있어서 아무 것도 하지 않은 flush 는 기록하지 않음
+
+ * 저장을 따로 모아두지 않는 이유
+ - pooled 시퀀스로 id 를 메모리에서 할당하고, insert 는 커밋 시점 flush 에서 JDBC 배치(batch_size, order_inserts)로 실행됨
+ -> em.persist 가 이미 쓰기 지연이므로 flush 크기와 소요 시간만 보고, 배치가 작게 쪼개지는 경우를 지표로 확인
+
+ * 지표
+ - transaction.flush.size : flush 한 번에 처리한 엔티티 수
+ - transaction.flush : flush 소요 시간 (변경 감지 + SQL 실행)
+ */
+@Component
+public class FlushMetrics implements MeterBinder {
+
+    //flush 는 세션을 사용하는 스레드에서 시작하고 끝나므로 시작 시각을 스레드별로 보관
+    private static final ThreadLocal<Long> FLUSH_START = new ThreadLocal<>();
+
+    @Nullable
+    private volatile DistributionSummary flushSize;
+
+    @Nullable
+    private volatile Timer flushTimer;
+
+    public FlushMetrics(EntityManagerFactory emf) {
+        SessionFactoryImplementor sessionFactory = emf.unwrap(SessionFactoryImplementor.class);
+        EventListenerRegistry listeners = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        listeners.prependListeners(EventType.FLUSH, new FlushStart());
+        listeners.appendListeners(EventType.FLUSH, new FlushEnd());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        flushSize = DistributionSummary.builder("transaction.flush.size")
+                .description("flush 한 번에 처리한 엔티티 수")
+                .publishPercentileHistogram()
+                .register(registry);
+        flushTimer = Timer.builder("transaction.flush")
+                .description("flush 소요 시간 (변경 감지 + SQL 실행)")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private static class FlushStart implements FlushEventListener {
+
+        @Override
+        public void onFlush(FlushEvent event) {
+            FLUSH_START.set(System.nanoTime());
+        }
+    }
+
+    private class FlushEnd implements FlushEventListener {
+
+        @Override
+        public void onFlush(FlushEvent event) {
+            Long start = FLUSH_START.get();
+            FLUSH_START.remove();
+            int entities = event.getNumberOfEntitiesProcessed();
+            if (start == null || entities == 0) {
+                return;
+            }
+
+            DistributionSummary size = flushSize;
+            Timer timer = flushTimer;
+            if (size != null && timer != null) {
+                size.record(entities);
+                timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+}
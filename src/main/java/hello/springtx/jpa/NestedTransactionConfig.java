@@ -0,0 +1,38 @@
+package hello.springtx.jpa;
+
+import org.springframework.boot.autoconfigure.orm.jpa.JpaProperties;
+import org.springframework.boot.autoconfigure.transaction.PlatformTransactionManagerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.JpaVendorAdapter;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+/**
+ * NestedTransactionConfig
+ - @Transactional(propagation = NESTED) 를 JPA 에서 사용할 수 있도록 설정
+ - 스프링 부트가 만드는 HibernateJpaVendorAdapter 대신 SavepointHibernateJpaVendorAdapter 를 등록
+ -> 부트 설정(spring.jpa.show-sql, database-platform 등)은 그대로 적용
+ */
+@Configuration(proxyBeanMethods = false)
+public class NestedTransactionConfig {
+
+    @Bean
+    public JpaVendorAdapter jpaVendorAdapter(JpaProperties properties) {
+        HibernateJpaVendorAdapter adapter = new SavepointHibernateJpaVendorAdapter();
+        adapter.setShowSql(properties.isShowSql());
+        if (properties.getDatabase() != null) {
+            adapter.setDatabase(properties.getDatabase());
+        }
+        if (properties.getDatabasePlatform() != null) {
+            adapter.setDatabasePlatform(properties.getDatabasePlatform());
+        }
+        adapter.setGenerateDdl(properties.isGenerateDdl());
+        return adapter;
+    }
+
+    @Bean
+    public PlatformTransactionManagerCustomizer<JpaTransactionManager> nestedTransactionCustomizer() {
+        return transactionManager -> transactionManager.setNestedTransactionAllowed(true);
+    }
+}
@@ -0,0 +1,35 @@
+package hello.springtx.jpa;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * PooledSequenceGenerator
+ - 시퀀스 한 번 호출로 allocation_size 만큼의 id 를 미리 확보하는 시퀀스 생성기
+ - @SequenceGenerator(allocationSize) 는 컴파일 시점 상수만 받기 때문에, 설정 파일에서 크기를 바꿀 수 있도록 SequenceStyleGenerator 를 확장
+ -> spring.jpa.properties.springtx.id.allocation_size 로 지정 (기본 50)
+ - pooled / pooled-lo 선택은 hibernate.id.optimizer.pooled.preferred 설정을 따름
+
+ * 사용
+ - @GenericGenerator(name = "member_seq", type = PooledSequenceGenerator.class,
+                     parameters = @Parameter(name = "sequence_name", value = "member_seq"))
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+    public static final String ALLOCATION_SIZE_SETTING = "springtx.id.allocation_size";
+    public static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) throws MappingException {
+        int allocationSize = serviceRegistry.getService(ConfigurationService.class)
+                .getSetting(ALLOCATION_SIZE_SETTING, StandardConverters.INTEGER, DEFAULT_ALLOCATION_SIZE);
+        parameters.setProperty(INCREMENT_PARAM, String.valueOf(allocationSize));
+        super.configure(type, parameters, serviceRegistry);
+    }
+}
@@ -0,0 +1,91 @@
+package hello.springtx.jpa;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.springframework.lang.Nullable;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.SavepointManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.TransactionSystemException;
+
+import java.sql.SQLException;
+import java.sql.Savepoint;
+
+/**
+ * SavepointHibernateJpaDialect
+ - JpaTransactionManager 는 JpaDialect 가 SavepointManager 를 제공해야 NESTED 전파를 지원함
+ - HibernateJpaDialect 는 제공하지 않으므로, 트랜잭션 시작시 Hibernate 세션의 JDBC 커넥션으로 세이브포인트를 다루는 SavepointManager 를 함께 반환
+
+ * 영속성 컨텍스트 주의
+ - 세이브포인트로 롤백해도 DB 만 롤백되고 영속성 컨텍스트(1차 캐시)는 되돌아가지 않음
+ - 세이브포인트 생성 전에 flush 해서 외부 트랜잭션의 변경 내용이 세이브포인트 롤백에 섞이지 않도록 함
+ - NESTED 메서드는 변경 내용을 메서드 안에서 flush 하고, 실패시 관련 엔티티를 detach 해야 커밋 시점에 다시 반영되지 않음
+ */
+@Slf4j
+public class SavepointHibernateJpaDialect extends HibernateJpaDialect {
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws PersistenceException, SQLException, TransactionException {
+        Object transactionData = super.beginTransaction(entityManager, definition);
+        return new SavepointTransactionData(entityManager.unwrap(Session.class), transactionData);
+    }
+
+    @Override
+    public void cleanupTransaction(@Nullable Object transactionData) {
+        if (transactionData instanceof SavepointTransactionData savepointData) {
+            super.cleanupTransaction(savepointData.delegate);
+        } else {
+            super.cleanupTransaction(transactionData);
+        }
+    }
+
+    private static class SavepointTransactionData implements SavepointManager {
+
+        private final Session session;
+
+        @Nullable
+        private final Object delegate;
+
+        private int savepointCounter;
+
+        SavepointTransactionData(Session session, @Nullable Object delegate) {
+            this.session = session;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Object createSavepoint() throws TransactionException {
+            try {
+                session.flush();
+                String name = "SAVEPOINT_" + (++savepointCounter);
+                return session.doReturningWork(connection -> connection.setSavepoint(name));
+            } catch (HibernateException | PersistenceException e) {
+                throw new CannotCreateTransactionException("Could not create JDBC savepoint", e);
+            }
+        }
+
+        @Override
+        public void rollbackToSavepoint(Object savepoint) throws TransactionException {
+            try {
+                session.doWork(connection -> connection.rollback((Savepoint) savepoint));
+            } catch (HibernateException e) {
+                throw new TransactionSystemException("Could not roll back to JDBC savepoint", e);
+            }
+        }
+
+        @Override
+        public void releaseSavepoint(Object savepoint) throws TransactionException {
+            try {
+                session.doWork(connection -> connection.releaseSavepoint((Savepoint) savepoint));
+            } catch (HibernateException e) {
+                log.debug("Could not explicitly release JDBC savepoint", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package hello.springtx.jpa;
+
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+/**
+ * SavepointHibernateJpaVendorAdapter
+ - EntityManagerFactory 와 JpaTransactionManager 가 SavepointHibernateJpaDialect 를 사용하도록 지정
+ */
+public class SavepointHibernateJpaVendorAdapter extends HibernateJpaVendorAdapter {
+
+    private final SavepointHibernateJpaDialect jpaDialect = new SavepointHibernateJpaDialect();
+
+    @Override
+    public HibernateJpaDialect getJpaDialect() {
+        return jpaDialect;
+    }
+}
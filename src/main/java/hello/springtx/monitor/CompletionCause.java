@@ -0,0 +1,27 @@
+package hello.springtx.monitor;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * CompletionCause
+ - 트랜잭션 AOP 가 커밋/롤백 여부를 판단할 때(rollbackOn) 받은 예외를 현재 스레드에 잠시 보관
+ - 바로 이어지는 ListeningTransactionManager 의 commit/rollback 에서 꺼내서 TransactionRecord 에 기록
+ */
+final class CompletionCause {
+
+    private static final ThreadLocal<Throwable> current = new ThreadLocal<>();
+
+    private CompletionCause() {
+    }
+
+    static void record(Throwable ex) {
+        current.set(ex);
+    }
+
+    @Nullable
+    static Throwable consume() {
+        Throwable ex = current.get();
+        current.remove();
+        return ex;
+    }
+}
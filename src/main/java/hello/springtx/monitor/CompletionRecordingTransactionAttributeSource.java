@@ -0,0 +1,48 @@
+package hello.springtx.monitor;
+
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.interceptor.DelegatingTransactionAttribute;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+import org.springframework.transaction.interceptor.TransactionAttributeSource;
+
+import java.lang.reflect.Method;
+
+/**
+ * CompletionRecordingTransactionAttributeSource
+ - 트랜잭션 매니저의 rollback(status) 에는 예외 정보가 전달되지 않음
+ - 트랜잭션 AOP 는 커밋/롤백 결정 직전에 항상 TransactionAttribute.rollbackOn(ex) 를 호출하므로
+   이 시점의 예외를 CompletionCause 에 보관해서 예외 종류별 롤백 집계에 사용
+ */
+public class CompletionRecordingTransactionAttributeSource implements TransactionAttributeSource {
+
+    private final TransactionAttributeSource delegate;
+
+    public CompletionRecordingTransactionAttributeSource(TransactionAttributeSource delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public boolean isCandidateClass(Class<?> targetClass) {
+        return delegate.isCandidateClass(targetClass);
+    }
+
+    @Override
+    @Nullable
+    public TransactionAttribute getTransactionAttribute(Method method, @Nullable Class<?> targetClass) {
+        TransactionAttribute attribute = delegate.getTransactionAttribute(method, targetClass);
+        return (attribute != null ? new CompletionRecordingTransactionAttribute(attribute) : null);
+    }
+
+    private static class CompletionRecordingTransactionAttribute extends DelegatingTransactionAttribute {
+
+        CompletionRecordingTransactionAttribute(TransactionAttribute targetAttribute) {
+            super(targetAttribute);
+        }
+
+        @Override
+        public boolean rollbackOn(Throwable ex) {
+            CompletionCause.record(ex);
+            return super.rollbackOn(ex);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package hello.springtx.monitor;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * ListeningTransactionManager
+ - 실제 트랜잭션 매니저(JpaTransactionManager, DataSourceTransactionManager)를 감싸서
+   시작, 커밋, 롤백 시점에 TransactionListener 를 호출하는 데코레이터
+ - 트랜잭션 처리 자체는 모두 delegate 에 위임하고 시간 측정과 리스너 호출만 담당
+
+ * 참고
+ - TransactionStatus 는 getTransaction 호출마다 새로 만들어지므로 status 인스턴스를 키로 기록을 보관
+ - 리스너에서 발생한 예외는 트랜잭션 처리에 영향을 주지 않도록 로그만 남김 (beforeBegin 은 예외)
+ */
+@Slf4j
+public class ListeningTransactionManager implements PlatformTransactionManager {
+
+    private final PlatformTransactionManager delegate;
+    private final ObjectProvider<TransactionListener> listenerProvider;
+    private final Map<TransactionStatus, TransactionRecord> records = new ConcurrentHashMap<>();
+
+    @Nullable
+    private volatile List<TransactionListener> listeners;
+
+    public ListeningTransactionManager(PlatformTransactionManager delegate,
+                                       ObjectProvider<TransactionListener> listenerProvider) {
+        this.delegate = delegate;
+        this.listenerProvider = listenerProvider;
+    }
+
+    public PlatformTransactionManager getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public TransactionStatus getTransaction(@Nullable TransactionDefinition definition) throws TransactionException {
+        TransactionDefinition definitionToUse = (definition != null ? definition : TransactionDefinition.withDefaults());
+        List<TransactionListener> listeners = listeners();
+        boolean outerTransactionActive = TransactionSynchronizationManager.isActualTransactionActive();
+        CompletionCause.consume();
+
+        for (TransactionListener listener : listeners) {
+            listener.beforeBegin(definitionToUse);
+        }
+
+        long start = System.nanoTime();
+        TransactionStatus status = delegate.getTransaction(definition);
+        TransactionRecord record = new TransactionRecord(definitionToUse, status, outerTransactionActive, start, System.nanoTime());
+        records.put(status, record);
+
+        notify(listeners, listener -> listener.afterBegin(record));
+        return status;
+    }
+
+    @Override
+    public void commit(TransactionStatus status) throws TransactionException {
+        TransactionRecord record = records.remove(status);
+        if (record == null) {
+            delegate.commit(status);
+            return;
+        }
+
+        record.completing(CompletionCause.consume());
+        try {
+            delegate.commit(status);
+        } catch (RuntimeException | Error ex) {
+            record.completed();
+            notify(listeners(), listener -> listener.afterCommit(record, ex));
+            throw ex;
+        }
+        record.completed();
+        notify(listeners(), listener -> listener.afterCommit(record, null));
+    }
+
+    @Override
+    public void rollback(TransactionStatus status) throws TransactionException {
+        TransactionRecord record = records.remove(status);
+        if (record == null) {
+            delegate.rollback(status);
+            return;
+        }
+
+        record.completing(CompletionCause.consume());
+        try {
+            delegate.rollback(status);
+        } catch (RuntimeException | Error ex) {
+            record.completed();
+            notify(listeners(), listener -> listener.afterRollback(record, ex));
+            throw ex;
+        }
+        record.completed();
+        notify(listeners(), listener -> listener.afterRollback(record, null));
+    }
+
+    private List<TransactionListener> listeners() {
+        List<TransactionListener> result = listeners;
+        if (result == null) {
+            result = listenerProvider.orderedStream().toList();
+            listeners = result;
+        }
+        return result;
+    }
+
+    private void notify(List<TransactionListener> listeners, Consumer<TransactionListener> callback) {
+        for (TransactionListener listener : listeners) {
+            try {
+                callback.accept(listener);
+            } catch (RuntimeException e) {
+                log.warn("TransactionListener 호출 실패 listener={}", listener.getClass().getSimpleName(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package hello.springtx.monitor;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.TransactionDefinition;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * PoolSizingAdvisor
+ - 스레드 하나가 동시에 잡고 있는 커넥션 수(물리 트랜잭션 깊이)를 가장 바깥 트랜잭션(진입점) 별로 기록
+ -> ex) MemberService.joinV1 -> LogRepository.save(REQUIRES_NEW) 는 깊이 2
+
+ * 커넥션 풀 고갈 데드락
+ - 모든 스레드가 커넥션을 하나씩 잡은 상태에서 REQUIRES_NEW 로 하나를 더 요청하면, 아무도 반납하지 못하고 타임아웃까지 대기
+ - 필요한 최소 풀 크기 = 스레드 수 x (스레드당 최대 커넥션 수 - 1) + 1 (HikariCP 위키 Pool Sizing)
+ - springtx.pool-advisor.threads : 트랜잭션을 동시에 실행할 수 있는 최대 스레드 수
+
+ * springtx.pool-advisor.mode
+ - OFF : 깊이만 기록
+ - WARN : 풀 크기가 부족한 REQUIRES_NEW 를 처음 만났을 때 진입점 별로 한 번 경고 로그
+ - FAIL : 풀 크기가 부족한 REQUIRES_NEW 를 시작하지 않고 바로 CannotCreateTransactionException
+ -> 커넥션 타임아웃까지 기다리지 않고 실패하므로 설정 오류를 빨리 발견할 수 있음
+
+ * 지표
+ - transaction.connection.depth : 진입점 별 최대 깊이
+ */
+@Slf4j
+@Component
+public class PoolSizingAdvisor implements TransactionListener {
+
+    public enum Mode {
+        OFF, WARN, FAIL
+    }
+
+    private static final String COUNTED = PoolSizingAdvisor.class.getName() + ".COUNTED";
+
+    private final DataSource dataSource;
+    private final MeterRegistry registry;
+    private final Mode mode;
+    private final int threads;
+
+    private final ThreadLocal<ThreadDepth> currentDepth = new ThreadLocal<>();
+    private final Map<String, AtomicInteger> maxDepths = new ConcurrentHashMap<>();
+    private final Set<String> warned = ConcurrentHashMap.newKeySet();
+
+    //커넥션 풀은 DataSource 를 처음 사용할 때 초기화되므로 처음 필요할 때 조회
+    private volatile int poolSize;
+
+    public PoolSizingAdvisor(DataSource dataSource, MeterRegistry registry,
+                             @Value("${springtx.pool-advisor.mode:WARN}") Mode mode,
+                             @Value("${springtx.pool-advisor.threads:10}") int threads) {
+        this.dataSource = dataSource;
+        this.registry = registry;
+        this.mode = mode;
+        this.threads = threads;
+    }
+
+    @Override
+    public void beforeBegin(TransactionDefinition definition) {
+        ThreadDepth depth = currentDepth.get();
+        if (mode == Mode.OFF || depth == null
+                || definition.getPropagationBehavior() != TransactionDefinition.PROPAGATION_REQUIRES_NEW) {
+            return;
+        }
+
+        int nextDepth = depth.depth + 1;
+        if (!isStarvationPossible(nextDepth)) {
+            return;
+        }
+
+        String message = String.format(
+                "커넥션 풀 고갈 데드락 위험 entryPoint=%s, depth=%d, threads=%d, pool=%d, required=%d",
+                depth.entryPoint, nextDepth, threads, getPoolSize(), getRequiredPoolSize(nextDepth));
+        if (mode == Mode.FAIL) {
+            throw new CannotCreateTransactionException(message);
+        }
+        if (warned.add(depth.entryPoint)) {
+            log.warn(message);
+        }
+    }
+
+    @Override
+    public void afterBegin(TransactionRecord record) {
+        //참여한 트랜잭션, NESTED(세이브포인트)는 커넥션을 추가로 사용하지 않음
+        if (!record.isNewTransaction()) {
+            return;
+        }
+
+        ThreadDepth depth = currentDepth.get();
+        if (depth == null) {
+            depth = new ThreadDepth(record.getName());
+            currentDepth.set(depth);
+        }
+        depth.depth++;
+        depth.maxDepth = Math.max(depth.maxDepth, depth.depth);
+        record.setAttribute(COUNTED, Boolean.TRUE);
+    }
+
+    @Override
+    public void afterCommit(TransactionRecord record, @Nullable Throwable commitFailure) {
+        release(record);
+    }
+
+    @Override
+    public void afterRollback(TransactionRecord record, @Nullable Throwable rollbackFailure) {
+        release(record);
+    }
+
+    /**
+     * 진입점 별 최대 깊이 (기록이 없으면 0)
+     */
+    public int getMaxDepth(String entryPoint) {
+        AtomicInteger maxDepth = maxDepths.get(entryPoint);
+        return (maxDepth != null ? maxDepth.get() : 0);
+    }
+
+    public Map<String, Integer> getMaxDepths() {
+        Map<String, Integer> result = new TreeMap<>();
+        maxDepths.forEach((entryPoint, maxDepth) -> result.put(entryPoint, maxDepth.get()));
+        return result;
+    }
+
+    public int getRequiredPoolSize(int depth) {
+        return threads * (depth - 1) + 1;
+    }
+
+    public boolean isStarvationPossible(int depth) {
+        return depth > 1 && getPoolSize() < getRequiredPoolSize(depth);
+    }
+
+    public int getPoolSize() {
+        int result = poolSize;
+        if (result == 0) {
+            result = maximumPoolSize(dataSource);
+            poolSize = result;
+        }
+        return result;
+    }
+
+    private static int maximumPoolSize(DataSource dataSource) {
+        HikariConfigMXBean hikari = DataSourceUnwrapper.unwrap(dataSource, HikariConfigMXBean.class, HikariDataSource.class);
+        if (hikari == null) {
+            log.warn("HikariDataSource 가 아니므로 커넥션 풀 크기를 10 으로 가정합니다. dataSource={}", dataSource.getClass());
+            return 10;
+        }
+        return hikari.getMaximumPoolSize();
+    }
+
+    private void release(TransactionRecord record) {
+        ThreadDepth depth = currentDepth.get();
+        if (depth == null || record.getAttribute(COUNTED) == null) {
+            return;
+        }
+
+        depth.depth--;
+        if (depth.depth == 0) {
+            currentDepth.remove();
+            maxDepths.computeIfAbsent(depth.entryPoint, this::registerGauge)
+                    .accumulateAndGet(depth.maxDepth, Math::max);
+        }
+    }
+
+    private AtomicInteger registerGauge(String entryPoint) {
+        AtomicInteger maxDepth = new AtomicInteger();
+        Gauge.builder("transaction.connection.depth", maxDepth, AtomicInteger::get)
+                .description("스레드 하나가 동시에 사용한 최대 커넥션 수")
+                .tag("entry", entryPoint)
+                .register(registry);
+        return maxDepth;
+    }
+
+    private static class ThreadDepth {
+
+        private final String entryPoint;
+        private int depth;
+        private int maxDepth;
+
+        ThreadDepth(String entryPoint) {
+            this.entryPoint = entryPoint;
+        }
+    }
+}
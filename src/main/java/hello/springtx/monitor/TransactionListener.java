@@ -0,0 +1,33 @@
+package hello.springtx.monitor;
+
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.TransactionDefinition;
+
+/**
+ * TransactionListener
+ - ListeningTransactionManager 가 트랜잭션 시작과 종료(커밋, 롤백) 시점에 호출하는 콜백
+ - 스프링 빈으로 등록하면 자동으로 적용됨 (@Order 순서대로 호출)
+
+ * 호출 시점
+ - beforeBegin : 트랜잭션 매니저에 트랜잭션을 요청하기 전, 예외를 던지면 트랜잭션을 시작하지 않음
+ - afterBegin : 트랜잭션 획득 직후 (신규 트랜잭션이면 커넥션 획득까지 끝난 상태)
+ - afterCommit, afterRollback : 트랜잭션 매니저의 commit, rollback 호출이 끝난 후
+ -> 논리 트랜잭션(참여한 트랜잭션)도 각각 호출되므로 TransactionRecord.isNewTransaction() 으로 물리 트랜잭션을 구분
+ */
+public interface TransactionListener {
+
+    default void beforeBegin(TransactionDefinition definition) {
+    }
+
+    default void afterBegin(TransactionRecord record) {
+    }
+
+    /**
+     * commitFailure : 커밋 중 발생한 예외 (rollbackOnly 로 인한 UnexpectedRollbackException 포함)
+     */
+    default void afterCommit(TransactionRecord record, @Nullable Throwable commitFailure) {
+    }
+
+    default void afterRollback(TransactionRecord record, @Nullable Throwable rollbackFailure) {
+    }
+}
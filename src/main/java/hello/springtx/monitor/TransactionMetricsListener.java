@@ -0,0 +1,95 @@
+package hello.springtx.monitor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.UnexpectedRollbackException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TransactionMetricsListener
+ - 트랜잭션 로그(TRACE, DEBUG) 대신 Micrometer 지표로 트랜잭션 생명주기를 기록 -> /actuator/metrics 로 확인
+
+ * 지표
+ - transaction.acquire : getTransaction 소요 시간 (신규 트랜잭션은 커넥션 획득 포함)
+ - transaction.body : 트랜잭션 시작부터 커밋/롤백 요청까지 (비즈니스 로직)
+ - transaction.commit, transaction.rollback : 커밋, 롤백 호출 소요 시간
+ - transaction.completions : 결과(commit, rollback)와 원인 예외 종류별 건수
+ -> ex) OrderService.order 의 NotEnoughMoneyException 은 commit, RuntimeException 은 rollback 으로 집계
+ - transaction.suspended : REQUIRES_NEW, NOT_SUPPORTED 로 기존 트랜잭션을 보류한 횟수
+ */
+@Component
+@RequiredArgsConstructor
+public class TransactionMetricsListener implements TransactionListener {
+
+    private final MeterRegistry registry;
+
+    @Override
+    public void afterBegin(TransactionRecord record) {
+        Timer.builder("transaction.acquire")
+                .description("getTransaction 소요 시간 (신규 트랜잭션은 커넥션 획득 포함)")
+                .tag("name", record.getName())
+                .tag("propagation", record.getPropagationName())
+                .tag("new", String.valueOf(record.isNewTransaction()))
+                .register(registry)
+                .record(record.getAcquireNanos(), TimeUnit.NANOSECONDS);
+
+        if (record.isSuspending()) {
+            Counter.builder("transaction.suspended")
+                    .description("기존 트랜잭션을 보류한 횟수")
+                    .tag("name", record.getName())
+                    .tag("propagation", record.getPropagationName())
+                    .register(registry)
+                    .increment();
+        }
+    }
+
+    @Override
+    public void afterCommit(TransactionRecord record, @Nullable Throwable commitFailure) {
+        recordBody(record);
+        Timer.builder("transaction.commit")
+                .tag("name", record.getName())
+                .tag("new", String.valueOf(record.isNewTransaction()))
+                .register(registry)
+                .record(record.getCompletionNanos(), TimeUnit.NANOSECONDS);
+
+        //rollbackOnly 가 설정된 상태에서 커밋을 요청하면 물리 트랜잭션은 롤백됨
+        String outcome = (commitFailure instanceof UnexpectedRollbackException ? "rollback"
+                : commitFailure != null ? "error" : "commit");
+        recordCompletion(record, outcome, commitFailure);
+    }
+
+    @Override
+    public void afterRollback(TransactionRecord record, @Nullable Throwable rollbackFailure) {
+        recordBody(record);
+        Timer.builder("transaction.rollback")
+                .tag("name", record.getName())
+                .tag("new", String.valueOf(record.isNewTransaction()))
+                .register(registry)
+                .record(record.getCompletionNanos(), TimeUnit.NANOSECONDS);
+
+        recordCompletion(record, rollbackFailure != null ? "error" : "rollback", rollbackFailure);
+    }
+
+    private void recordBody(TransactionRecord record) {
+        Timer.builder("transaction.body")
+                .tag("name", record.getName())
+                .register(registry)
+                .record(record.getBodyNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private void recordCompletion(TransactionRecord record, String outcome, @Nullable Throwable failure) {
+        Throwable cause = (record.getCompletionCause() != null ? record.getCompletionCause() : failure);
+        Counter.builder("transaction.completions")
+                .description("결과와 원인 예외 종류별 트랜잭션 종료 건수")
+                .tag("name", record.getName())
+                .tag("outcome", outcome)
+                .tag("exception", cause != null ? cause.getClass().getSimpleName() : "none")
+                .register(registry)
+                .increment();
+    }
+}
@@ -0,0 +1,19 @@
+package hello.springtx.monitor;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+
+@Configuration(proxyBeanMethods = false)
+public class TransactionMonitoringConfig {
+
+    //BeanPostProcessor 는 다른 빈보다 먼저 만들어져야 하므로 static 으로 등록
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static TransactionMonitoringPostProcessor transactionMonitoringPostProcessor(
+            ObjectProvider<TransactionListener> listeners) {
+        return new TransactionMonitoringPostProcessor(listeners);
+    }
+}
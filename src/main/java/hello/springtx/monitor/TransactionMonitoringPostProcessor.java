@@ -0,0 +1,49 @@
+package hello.springtx.monitor;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.core.PriorityOrdered;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.interceptor.TransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+
+/**
+ * TransactionMonitoringPostProcessor
+ - PlatformTransactionManager 빈을 ListeningTransactionManager 로 감쌈
+ - @Transactional 을 처리하는 TransactionInterceptor(프록시), AnnotationTransactionAspect(AspectJ) 의 TransactionAttributeSource 를
+   CompletionRecordingTransactionAttributeSource 로 감싸서 커밋/롤백 원인 예외를 기록
+
+ * PriorityOrdered
+ - 자동 프록시 생성기(Ordered)보다 먼저 등록되어야 TransactionInterceptor 가 만들어지기 전에 적용됨
+ */
+public class TransactionMonitoringPostProcessor implements BeanPostProcessor, PriorityOrdered {
+
+    private final ObjectProvider<TransactionListener> listeners;
+
+    public TransactionMonitoringPostProcessor(ObjectProvider<TransactionListener> listeners) {
+        this.listeners = listeners;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof TransactionAspectSupport transactionAspect) {
+            TransactionAttributeSource source = transactionAspect.getTransactionAttributeSource();
+            if (source != null && !(source instanceof CompletionRecordingTransactionAttributeSource)) {
+                transactionAspect.setTransactionAttributeSource(new CompletionRecordingTransactionAttributeSource(source));
+            }
+        }
+        if (bean instanceof PlatformTransactionManager transactionManager
+                && !(bean instanceof ListeningTransactionManager)) {
+            return new ListeningTransactionManager(transactionManager, listeners);
+        }
+        return bean;
+    }
+
+    @Override
+    public int getOrder() {
+        //TransactionAttributePrecomputer(LOWEST_PRECEDENCE) 보다 먼저 감싸도록 함
+        return Ordered.LOWEST_PRECEDENCE - 1;
+    }
+}
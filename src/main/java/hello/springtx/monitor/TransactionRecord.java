@@ -0,0 +1,137 @@
+package hello.springtx.monitor;
+
+import org.springframework.core.AttributeAccessorSupport;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
+
+/**
+ * TransactionRecord
+ - getTransaction 한 번(논리 트랜잭션 하나)에 대한 기록
+ - 리스너는 시작 시점에 필요한 값을 attribute 로 보관하고 종료 시점에 꺼내서 사용할 수 있음
+ */
+public class TransactionRecord extends AttributeAccessorSupport {
+
+    private static final String UNNAMED = "unnamed";
+
+    private final TransactionDefinition definition;
+    private final TransactionStatus status;
+    private final boolean outerTransactionActive;
+    private final long beginStartNanos;
+    private final long beganNanos;
+
+    private long completionStartNanos;
+    private long completedNanos;
+
+    @Nullable
+    private Throwable completionCause;
+
+    TransactionRecord(TransactionDefinition definition, TransactionStatus status,
+                      boolean outerTransactionActive, long beginStartNanos, long beganNanos) {
+        this.definition = definition;
+        this.status = status;
+        this.outerTransactionActive = outerTransactionActive;
+        this.beginStartNanos = beginStartNanos;
+        this.beganNanos = beganNanos;
+    }
+
+    void completing(@Nullable Throwable completionCause) {
+        this.completionCause = completionCause;
+        this.completionStartNanos = System.nanoTime();
+    }
+
+    void completed() {
+        this.completedNanos = System.nanoTime();
+    }
+
+    /**
+     * @Transactional 의 경우 "클래스명.메서드명", 이름이 없는 경우(TransactionTemplate 등) unnamed
+     */
+    public String getName() {
+        String name = definition.getName();
+        return (name != null ? name : UNNAMED);
+    }
+
+    public TransactionDefinition getDefinition() {
+        return definition;
+    }
+
+    public TransactionStatus getStatus() {
+        return status;
+    }
+
+    public String getPropagationName() {
+        for (Propagation propagation : Propagation.values()) {
+            if (propagation.value() == definition.getPropagationBehavior()) {
+                return propagation.name();
+            }
+        }
+        return String.valueOf(definition.getPropagationBehavior());
+    }
+
+    public String getIsolationName() {
+        for (Isolation isolation : Isolation.values()) {
+            if (isolation.value() == definition.getIsolationLevel()) {
+                return isolation.name();
+            }
+        }
+        return String.valueOf(definition.getIsolationLevel());
+    }
+
+    /**
+     * 물리 트랜잭션을 새로 시작했는지 여부 (false 면 기존 트랜잭션에 참여)
+     */
+    public boolean isNewTransaction() {
+        return status.isNewTransaction();
+    }
+
+    /**
+     * 기존 트랜잭션을 보류(suspend) 시켰는지 여부 (REQUIRES_NEW, NOT_SUPPORTED)
+     */
+    public boolean isSuspending() {
+        int propagation = definition.getPropagationBehavior();
+        return outerTransactionActive
+                && (propagation == TransactionDefinition.PROPAGATION_REQUIRES_NEW
+                || propagation == TransactionDefinition.PROPAGATION_NOT_SUPPORTED);
+    }
+
+    public boolean isOuterTransactionActive() {
+        return outerTransactionActive;
+    }
+
+    /**
+     * getTransaction 소요 시간 (신규 트랜잭션은 커넥션 획득 시간을 포함)
+     */
+    public long getAcquireNanos() {
+        return beganNanos - beginStartNanos;
+    }
+
+    /**
+     * 트랜잭션 시작 후 commit/rollback 요청까지 걸린 시간 (비즈니스 로직 수행 시간)
+     */
+    public long getBodyNanos() {
+        return completionStartNanos - beganNanos;
+    }
+
+    /**
+     * commit/rollback 호출 자체에 걸린 시간
+     */
+    public long getCompletionNanos() {
+        return completedNanos - completionStartNanos;
+    }
+
+    public long getStartNanos() {
+        return beginStartNanos;
+    }
+
+    /**
+     * @Transactional 메서드가 던진 예외 (정상 종료, TransactionTemplate 에서는 null)
+     - 체크 예외는 커밋되므로 커밋된 트랜잭션에도 값이 있을 수 있음
+     */
+    @Nullable
+    public Throwable getCompletionCause() {
+        return completionCause;
+    }
+}
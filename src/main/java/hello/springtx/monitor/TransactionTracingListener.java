@@ -0,0 +1,153 @@
+package hello.springtx.monitor;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.UnexpectedRollbackException;
+import org.springframework.transaction.support.AbstractTransactionStatus;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TransactionTracingListener
+ - 논리 트랜잭션(getTransaction 한 번)마다 span 을 하나씩 만들고, 안쪽 트랜잭션은 바깥 트랜잭션 span 의 자식으로 기록
+ -> BasicTxTest, MemberServiceTest 의 외부/내부 트랜잭션 구조가 그대로 트레이스에 나타남
+ - Micrometer Tracing API 를 사용하고 OpenTelemetry 브리지(micrometer-tracing-bridge-otel)로 내보냄
+ - Tracer 빈이 없으면(management.tracing.enabled=false, 테스트 기본값) 아무것도 하지 않음
+
+ * span 속성
+ - tx.name, tx.propagation, tx.isolation, tx.read_only
+ - tx.physical : 물리 트랜잭션을 새로 시작했으면 true, 기존 트랜잭션에 참여했으면 false
+ - tx.suspending : REQUIRES_NEW, NOT_SUPPORTED 로 바깥 트랜잭션을 보류했는지 여부
+ - tx.connection.wait_us : getTransaction 소요 시간 (물리 트랜잭션은 커넥션 획득 대기 포함)
+ - tx.outcome : commit, rollback, unexpected_rollback(rollbackOnly 때문에 커밋 요청이 롤백됨), error
+ - tx.rollback_only : 참여한 트랜잭션이 롤백되어 바깥 물리 트랜잭션을 rollbackOnly 로 표시한 경우 true
+ - tx.rollback_only.marked_by : 물리 트랜잭션 span 에 rollbackOnly 를 표시한 첫 번째 안쪽 트랜잭션 이름
+ -> UnexpectedRollbackException 이 발생하면 어떤 내부 트랜잭션 때문인지 바로 찾을 수 있음
+
+ * 참고
+ - NESTED(세이브포인트) 롤백은 세이브포인트까지만 롤백하므로 rollbackOnly 를 표시하지 않음
+ - 스레드 안에서 트랜잭션은 시작의 역순으로 끝나므로 span scope 도 역순으로 닫힘
+ */
+@Component
+public class TransactionTracingListener implements TransactionListener {
+
+    private static final String SPAN = TransactionTracingListener.class.getName() + ".SPAN";
+    private static final String SCOPE = TransactionTracingListener.class.getName() + ".SCOPE";
+    private static final String SAVEPOINT = TransactionTracingListener.class.getName() + ".SAVEPOINT";
+    private static final String MARKED_BY = TransactionTracingListener.class.getName() + ".MARKED_BY";
+
+    private final ObjectProvider<Tracer> tracerProvider;
+
+    //현재 스레드에서 진행 중인 트랜잭션 (가장 안쪽이 맨 앞)
+    private final ThreadLocal<Deque<TransactionRecord>> openRecords = ThreadLocal.withInitial(ArrayDeque::new);
+
+    @Nullable
+    private volatile Tracer tracer;
+
+    public TransactionTracingListener(ObjectProvider<Tracer> tracerProvider) {
+        this.tracerProvider = tracerProvider;
+    }
+
+    @Override
+    public void afterBegin(TransactionRecord record) {
+        Tracer tracer = tracer();
+        if (tracer == Tracer.NOOP) {
+            return;
+        }
+
+        Span span = tracer.nextSpan()
+                .name(record.getName())
+                .tag("tx.name", record.getName())
+                .tag("tx.propagation", record.getPropagationName())
+                .tag("tx.isolation", record.getIsolationName())
+                .tag("tx.read_only", String.valueOf(record.getDefinition().isReadOnly()))
+                .tag("tx.physical", String.valueOf(record.isNewTransaction()))
+                .tag("tx.suspending", String.valueOf(record.isSuspending()))
+                .tag("tx.connection.wait_us", String.valueOf(TimeUnit.NANOSECONDS.toMicros(record.getAcquireNanos())))
+                .start();
+
+        record.setAttribute(SPAN, span);
+        record.setAttribute(SCOPE, tracer.withSpan(span));
+        record.setAttribute(SAVEPOINT, record.getStatus().hasSavepoint());
+        openRecords.get().push(record);
+    }
+
+    @Override
+    public void afterCommit(TransactionRecord record, @Nullable Throwable commitFailure) {
+        String outcome = (commitFailure instanceof UnexpectedRollbackException ? "unexpected_rollback"
+                : commitFailure != null ? "error" : "commit");
+        //참여한 트랜잭션에서 setRollbackOnly 후 커밋을 요청해도 바깥 트랜잭션이 rollbackOnly 로 표시됨
+        boolean localRollbackOnly = record.getStatus() instanceof AbstractTransactionStatus status && status.isLocalRollbackOnly();
+        finish(record, outcome, commitFailure, localRollbackOnly && isParticipating(record));
+    }
+
+    @Override
+    public void afterRollback(TransactionRecord record, @Nullable Throwable rollbackFailure) {
+        finish(record, rollbackFailure != null ? "error" : "rollback", rollbackFailure, isParticipating(record));
+    }
+
+    private void finish(TransactionRecord record, String outcome, @Nullable Throwable failure, boolean marksRollbackOnly) {
+        Span span = (Span) record.getAttribute(SPAN);
+        if (span == null) {
+            return;
+        }
+        Deque<TransactionRecord> records = openRecords.get();
+        records.remove(record);
+
+        if (marksRollbackOnly) {
+            span.tag("tx.rollback_only", "true");
+            markPhysical(records, record.getName());
+        }
+        Object markedBy = record.getAttribute(MARKED_BY);
+        if (markedBy != null) {
+            span.tag("tx.rollback_only.marked_by", (String) markedBy);
+        }
+        span.tag("tx.outcome", outcome);
+
+        Throwable cause = (record.getCompletionCause() != null ? record.getCompletionCause() : failure);
+        if (cause != null) {
+            span.error(cause);
+        }
+
+        ((Tracer.SpanInScope) record.getAttribute(SCOPE)).close();
+        span.end();
+        if (records.isEmpty()) {
+            openRecords.remove();
+        }
+    }
+
+    //참여한 트랜잭션은 가장 가까운 바깥 물리 트랜잭션을 사용
+    private void markPhysical(Deque<TransactionRecord> records, String markedBy) {
+        for (TransactionRecord outer : records) {
+            if (outer.isNewTransaction()) {
+                if (outer.getAttribute(MARKED_BY) == null) {
+                    outer.setAttribute(MARKED_BY, markedBy);
+                    ((Span) outer.getAttribute(SPAN)).event("rollback-only marked by " + markedBy);
+                }
+                return;
+            }
+        }
+    }
+
+    //물리 트랜잭션에 참여한 논리 트랜잭션 (세이브포인트를 사용한 NESTED, 보류한 경우 제외)
+    private static boolean isParticipating(TransactionRecord record) {
+        return !record.isNewTransaction()
+                && record.isOuterTransactionActive()
+                && !record.isSuspending()
+                && !Boolean.TRUE.equals(record.getAttribute(SAVEPOINT));
+    }
+
+    private Tracer tracer() {
+        Tracer result = tracer;
+        if (result == null) {
+            result = tracerProvider.getIfAvailable(() -> Tracer.NOOP);
+            tracer = result;
+        }
+        return result;
+    }
+}
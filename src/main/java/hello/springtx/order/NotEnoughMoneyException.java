@@ -1,8 +1,22 @@
 package hello.springtx.order;
 
+/**
+ * NotEnoughMoneyException
+ - 결제 잔고 부족을 알리는 비즈니스 예외 (체크 예외, 커밋)
+ - stackless() : 스택 트레이스를 만들지 않는 예외, 생성 비용 비교(OrderBenchmark)용으로만 사용
+ -> order() 는 로그와 장애 분석을 위해 스택 트레이스를 포함한 예외를 그대로 던짐
+ */
 public class NotEnoughMoneyException extends Exception {
 
     public NotEnoughMoneyException(String message) {
         super(message);
     }
+
+    private NotEnoughMoneyException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
+
+    public static NotEnoughMoneyException stackless(String message) {
+        return new NotEnoughMoneyException(message, false);
+    }
 }
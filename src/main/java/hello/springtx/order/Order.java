@@ -1,22 +1,39 @@
 package hello.springtx.order;
 
+import hello.springtx.jpa.PooledSequenceGenerator;
+import hello.springtx.cache.SecondLevelCacheConfig;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
+//2차 캐시(springtx.second-level-cache.enabled=true) 사용시 order 영역에 보관, 롤백된 주문은 캐시에 반영되지 않음
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.ORDER_REGION)
 @Table(name = "orders")
 @Getter
 @Setter
 public class Order {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "orders_seq")
+    @GenericGenerator(name = "orders_seq", type = PooledSequenceGenerator.class,
+            parameters = @Parameter(name = "sequence_name", value = "orders_seq"))
     private Long id;
 
     private String username;    //정상, 예외, 잔고부족
     private String payStatus;   //대기, 완료
+
+    //낙관적 락 : 수정할 때마다 증가, 읽은 이후 다른 트랜잭션이 먼저 수정했으면 커밋 시점에 충돌 예외 발생
+    @Version
+    private Long version;
 }
@@ -0,0 +1,40 @@
+package hello.springtx.order;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * OrderResult
+ - 주문 한 건의 처리 결과
+ - COMPLETE : 결제 완료 후 커밋 (payStatus = 완료)
+ - WAITING : 잔고 부족, 주문은 대기 상태로 커밋 (payStatus = 대기)
+ - FAILED : 시스템 예외로 롤백, 주문 데이터 없음
+ */
+@Getter
+@ToString
+public class OrderResult {
+
+    public enum Status {
+        COMPLETE, WAITING, FAILED
+    }
+
+    private final Long orderId;
+    private final String username;
+    private final Status status;
+    private final String message;
+
+    private OrderResult(Long orderId, String username, Status status, String message) {
+        this.orderId = orderId;
+        this.username = username;
+        this.status = status;
+        this.message = message;
+    }
+
+    public static OrderResult of(Order order, Status status) {
+        return new OrderResult(order.getId(), order.getUsername(), status, null);
+    }
+
+    public static OrderResult failed(Order order, Exception e) {
+        return new OrderResult(null, order.getUsername(), Status.FAILED, e.getMessage());
+    }
+}
@@ -1,9 +1,14 @@
 package hello.springtx.order;
 
-import lombok.RequiredArgsConstructor;
+import hello.springtx.retry.RetryOnTransientFailure;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * 예외와 트랜잭션 커밋, 롤백 - 활용
@@ -19,17 +24,145 @@ import org.springframework.transaction.annotation.Transactional;
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class OrderService {
 
     private final OrderRepository orderRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    //orderAll 에서 한 트랜잭션으로 처리하는 주문 수 (JDBC 배치 크기와 맞춤)
+    private final int chunkSize;
+
+    public OrderService(OrderRepository orderRepository, TransactionTemplate transactionTemplate,
+                        @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int chunkSize) {
+        this.orderRepository = orderRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+    }
 
     //JPA 는 트랜잭션 커밋 시점에 Order 데이터를 DB 에 반영함
-    @Transactional
+    //NotEnoughMoneyException 은 정상적인 비즈니스 결과이므로 커밋 (체크 예외 기본 정책과 같지만 의도를 명시, 결정은 예외 클래스별로 캐시됨)
+    //@RetryOnTransientFailure 를 붙이지 않음 : 실패한 시도가 persist 로 할당한 id 가 남은 같은 Order 로 다시 호출되면
+    //save 가 merge 로 처리되어 다른 id 의 복사본이 저장되고, 호출한 쪽의 Order 는 커밋되지 않은 id 를 가진 준영속 상태로 남음
+    @Transactional(noRollbackFor = NotEnoughMoneyException.class)
     public void order(Order order) throws NotEnoughMoneyException {
         log.info("order 호출");
         orderRepository.save(order);
 
+        if (pay(order) == OrderResult.Status.WAITING) {
+            throw new NotEnoughMoneyException("잔고가 부족합니다");
+        }
+
+        log.info("결제 프로세스 완료");
+    }
+
+    /**
+     * orderWithResult
+     - order() 와 같은 처리를 하지만 잔고 부족을 예외 대신 결과(WAITING)로 반환
+     - 잔고 부족이면 주문을 대기 상태로 저장하고 커밋 (order() 의 NotEnoughMoneyException 과 같은 결과)
+     -> 예외 생성, 트랜잭션 AOP 의 예외 처리(rollbackOn 판단, 예외 다시 던지기)가 없음
+     - 시스템 예외(RuntimeException)는 그대로 던지고 롤백
+     - order() 와 같은 이유로 재시도하지 않음 (변경 가능한 엔티티를 파라미터로 받음)
+     */
+    @Transactional
+    public OrderResult orderWithResult(Order order) {
+        log.info("order 호출");
+        orderRepository.save(order);
+
+        OrderResult.Status status = pay(order);
+        if (status == OrderResult.Status.WAITING) {
+            log.info("잔고 부족, 주문 대기 상태로 저장");
+        } else {
+            log.info("결제 프로세스 완료");
+        }
+        return OrderResult.of(order, status);
+    }
+
+    /**
+     * payWaiting
+     - 대기 상태 주문의 결제를 다시 시도해서 완료로 변경 (낙관적 락)
+     - 같은 주문을 동시에 결제하면 먼저 커밋한 쪽만 반영되고, 나머지는 커밋 시점에 버전 충돌 예외 발생
+     -> @RetryOnTransientFailure 가 새 트랜잭션으로 다시 조회하고, 이미 완료된 주문이면 수정 없이 완료 결과를 반환
+     - 충돌이 드물면 락 대기가 없어서 빠르지만, 충돌이 많으면 롤백/재시도 비용이 커짐 (OrderContentionBenchmark)
+     */
+    @RetryOnTransientFailure
+    @Transactional
+    public OrderResult payWaiting(Long orderId) {
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new IllegalArgumentException("주문이 없습니다. orderId=" + orderId));
+        return OrderResult.of(order, payIfWaiting(order));
+    }
+
+    /**
+     * payWaitingLocked
+     - payWaiting() 과 같지만 select ... for update 로 주문을 잠그고 처리 (비관적 락)
+     - 동시에 결제하면 먼저 잠근 트랜잭션이 끝날 때까지 대기한 뒤 완료 상태를 읽으므로 충돌 예외가 없음
+     - 락 대기 시간이 락 타임아웃을 넘으면 일시적인 예외로 재시도
+     */
+    @RetryOnTransientFailure
+    @Transactional
+    public OrderResult payWaitingLocked(Long orderId) {
+        Order order = orderRepository.findByIdForUpdate(orderId)
+                .orElseThrow(() -> new IllegalArgumentException("주문이 없습니다. orderId=" + orderId));
+        return OrderResult.of(order, payIfWaiting(order));
+    }
+
+    /**
+     * orderAll
+     - 대량 주문을 chunkSize 단위의 트랜잭션으로 나누어 처리하고 주문별 결과를 반환
+     - 잔고 부족은 예외 없이 대기 상태로 저장하고 커밋 (order() 의 NotEnoughMoneyException 과 같은 결과)
+     - 청크 안에서 시스템 예외가 발생하면 해당 청크만 롤백하고, 청크를 반으로 나누어 다시 처리
+     -> 실패한 주문만 FAILED 가 되고 같은 청크의 나머지 주문은 저장됨
+
+     * 주의
+     - 이 메서드에는 @Transactional 을 붙이지 않음, 청크마다 TransactionTemplate 으로 새 트랜잭션을 시작
+     -> 같은 클래스의 @Transactional 메서드를 내부 호출하면 트랜잭션이 적용되지 않기 때문 (InternalCallV1Test)
+     */
+    public List<OrderResult> orderAll(List<Order> orders) {
+        log.info("orderAll 호출 size={}", orders.size());
+        List<OrderResult> results = new ArrayList<>(orders.size());
+        for (int from = 0; from < orders.size(); from += chunkSize) {
+            List<Order> chunk = orders.subList(from, Math.min(from + chunkSize, orders.size()));
+            results.addAll(orderChunk(chunk));
+        }
+        return results;
+    }
+
+    private List<OrderResult> orderChunk(List<Order> chunk) {
+        try {
+            return transactionTemplate.execute(status -> payAll(chunk));
+        } catch (RuntimeException e) {
+            chunk.forEach(this::resetForRetry);
+            if (chunk.size() == 1) {
+                log.info("주문 처리 실패 username={}", chunk.get(0).getUsername());
+                return List.of(OrderResult.failed(chunk.get(0), e));
+            }
+
+            log.info("청크 롤백, 나누어서 다시 처리합니다. size={}", chunk.size());
+            int middle = chunk.size() / 2;
+            List<OrderResult> results = new ArrayList<>(chunk.size());
+            results.addAll(orderChunk(chunk.subList(0, middle)));
+            results.addAll(orderChunk(chunk.subList(middle, chunk.size())));
+            return results;
+        }
+    }
+
+    /**
+     * 결제 상태를 먼저 정한 뒤 저장 -> flush 시점에 insert 한 번으로 JDBC 배치에 묶임 (상태 변경 update 없음)
+     */
+    private List<OrderResult> payAll(List<Order> chunk) {
+        List<OrderResult> results = new ArrayList<>(chunk.size());
+        List<OrderResult.Status> statuses = new ArrayList<>(chunk.size());
+        for (Order order : chunk) {
+            statuses.add(pay(order));
+        }
+        orderRepository.saveAll(chunk);
+        for (int i = 0; i < chunk.size(); i++) {
+            results.add(OrderResult.of(chunk.get(i), statuses.get(i)));
+        }
+        return results;
+    }
+
+    private OrderResult.Status pay(Order order) {
         log.info("결제 프로세스 진입");
         if(order.getUsername().equals("예외")) {
             log.info("시스템 예외 발생");
@@ -37,12 +170,27 @@ public class OrderService {
         } else if(order.getUsername().equals("잔고부족")) {
             log.info("잔고 부족 비즈니스 예외 발생");
             order.setPayStatus("대기");
-            throw new NotEnoughMoneyException("잔고가 부족합니다");
+            return OrderResult.Status.WAITING;
         } else {
             log.info("정상 승인");
             order.setPayStatus("완료");
+            return OrderResult.Status.COMPLETE;
         }
+    }
 
-        log.info("결제 프로세스 완료");
+    //이미 다른 트랜잭션이 완료 처리한 주문은 다시 결제하지 않음
+    private OrderResult.Status payIfWaiting(Order order) {
+        if (!"대기".equals(order.getPayStatus())) {
+            log.info("이미 처리된 주문 orderId={} payStatus={}", order.getId(), order.getPayStatus());
+            return "완료".equals(order.getPayStatus()) ? OrderResult.Status.COMPLETE : OrderResult.Status.WAITING;
+        }
+        return pay(order);
+    }
+
+    //롤백된 청크에서 persist 시점에 할당된 id, version 을 지워야 다시 저장할 때 신규 엔티티로 처리됨
+    private void resetForRetry(Order order) {
+        order.setId(null);
+        order.setVersion(null);
+        order.setPayStatus(null);
     }
 }
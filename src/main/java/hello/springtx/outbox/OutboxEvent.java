@@ -0,0 +1,49 @@
+package hello.springtx.outbox;
+
+import hello.springtx.jpa.PooledSequenceGenerator;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
+import java.time.Instant;
+
+/**
+ * OutboxEvent
+ - 비즈니스 트랜잭션과 같은 트랜잭션에서 저장하는 이벤트
+ - OutboxRelay 가 나중에 읽어서 전달하고 삭제함
+ - attempts : 전달에 실패한 횟수 (최대 횟수를 넘으면 더 이상 가져가지 않음)
+ */
+@Entity
+@Table(name = "outbox_event", indexes = @Index(name = "idx_outbox_event_payload", columnList = "payload"))
+@Getter
+@Setter
+public class OutboxEvent {
+
+    public static final String MEMBER_JOINED = "MemberJoined";
+
+    @Id
+    @GeneratedValue(generator = "outbox_seq")
+    @GenericGenerator(name = "outbox_seq", type = PooledSequenceGenerator.class,
+            parameters = @Parameter(name = "sequence_name", value = "outbox_seq"))
+    private Long id;
+
+    private String eventType;
+    private String payload;
+    private Instant createdAt;
+    private int attempts;
+
+    public OutboxEvent() {
+    }
+
+    public OutboxEvent(String eventType, String payload) {
+        this.eventType = eventType;
+        this.payload = payload;
+        this.createdAt = Instant.now();
+    }
+}
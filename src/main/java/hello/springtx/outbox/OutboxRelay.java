@@ -0,0 +1,179 @@
+package hello.springtx.outbox;
+
+import hello.springtx.propagation.Log;
+import hello.springtx.propagation.LogRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * OutboxRelay
+ - 아웃박스에 쌓인 이벤트를 묶음 단위로 가져와서 Log 로 저장하고, 전달한 이벤트를 삭제
+ - 이벤트 claim, Log 저장, 이벤트 삭제가 하나의 트랜잭션에서 실행됨
+ -> 전달 도중 실패하면 이벤트가 남아 있으므로 다음 폴링에서 다시 전달 (at-least-once)
+
+ * 예외 처리
+ - 묶음 저장(LogRepository.saveAll)이 실패하면 트랜잭션을 롤백하고, 같은 묶음을 다시 가져와서 한 건씩 전달
+ - 한 건씩 전달할 때는 LogRepository.saveNested(세이브포인트)를 사용해서 실패한 이벤트만 롤백
+ - 실패한 이벤트는 attempts 를 증가시키고, maxAttempts 에 도달하면 더 이상 가져가지 않음 (테이블에 남겨서 확인)
+
+ * 지표 (MeterBinder)
+ - outbox.relay.delivered : 전달한 이벤트 수 (처리량)
+ - outbox.relay.failed : 전달에 실패한 횟수
+ - outbox.relay.batch : 묶음 하나를 처리하는 데 걸린 시간
+ - outbox.relay.lag : 이벤트 저장부터 전달(커밋)까지 걸린 시간
+ */
+@Slf4j
+@Component
+public class OutboxRelay implements MeterBinder {
+
+    private final OutboxRepository outboxRepository;
+    private final LogRepository logRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+
+    private final AtomicLong deliveredCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+
+    @Nullable
+    private volatile Timer batchTimer;
+
+    @Nullable
+    private volatile Timer lagTimer;
+
+    public OutboxRelay(OutboxRepository outboxRepository,
+                       LogRepository logRepository,
+                       TransactionTemplate transactionTemplate,
+                       @Value("${springtx.outbox.relay.batch-size:100}") int batchSize,
+                       @Value("${springtx.outbox.relay.max-attempts:5}") int maxAttempts) {
+        this.outboxRepository = outboxRepository;
+        this.logRepository = logRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("outbox.relay.delivered", deliveredCount, AtomicLong::get)
+                .description("전달한 아웃박스 이벤트 수")
+                .register(registry);
+        FunctionCounter.builder("outbox.relay.failed", failedCount, AtomicLong::get)
+                .description("아웃박스 이벤트 전달 실패 횟수")
+                .register(registry);
+        batchTimer = Timer.builder("outbox.relay.batch")
+                .description("아웃박스 묶음 처리 시간")
+                .register(registry);
+        lagTimer = Timer.builder("outbox.relay.lag")
+                .description("아웃박스 이벤트 저장부터 전달까지 걸린 시간")
+                .register(registry);
+    }
+
+    /**
+     * drain
+     - 더 이상 전달할 이벤트가 없을 때까지 relayOnce 반복
+     */
+    public void drain() {
+        while (relayOnce() == batchSize) {
+            log.debug("outbox 이벤트가 남아 있어서 계속 전달합니다.");
+        }
+    }
+
+    /**
+     * relayOnce
+     - 묶음 하나를 전달하고, 전달한 이벤트 수를 반환
+     */
+    public int relayOnce() {
+        long start = System.nanoTime();
+        List<OutboxEvent> delivered;
+        try {
+            delivered = transactionTemplate.execute(status -> deliverBatch());
+        } catch (RuntimeException e) {
+            log.info("outbox 일괄 전달 실패, 한 건씩 다시 전달합니다.");
+            delivered = transactionTemplate.execute(status -> deliverOneByOne());
+        } finally {
+            Timer timer = batchTimer;
+            if (timer != null) {
+                timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        //커밋된 뒤에 지표 기록
+        record(delivered);
+        return delivered.size();
+    }
+
+    public long getDeliveredCount() {
+        return deliveredCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    private List<OutboxEvent> deliverBatch() {
+        List<OutboxEvent> events = outboxRepository.claim(batchSize, maxAttempts);
+        if (events.isEmpty()) {
+            return events;
+        }
+
+        List<Log> logMessages = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            logMessages.add(toLog(event));
+        }
+        logRepository.saveAll(logMessages);
+        outboxRepository.deleteAll(events.stream().map(OutboxEvent::getId).toList());
+        return events;
+    }
+
+    private List<OutboxEvent> deliverOneByOne() {
+        List<OutboxEvent> events = outboxRepository.claim(batchSize, maxAttempts);
+        List<OutboxEvent> delivered = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            try {
+                logRepository.saveNested(toLog(event));
+                delivered.add(event);
+            } catch (RuntimeException e) {
+                failedCount.incrementAndGet();
+                outboxRepository.increaseAttempts(event.getId());
+                log.info("outbox 이벤트 전달에 실패했습니다. id = {}, attempts = {}", event.getId(), event.getAttempts() + 1);
+            }
+        }
+
+        if (!delivered.isEmpty()) {
+            outboxRepository.deleteAll(delivered.stream().map(OutboxEvent::getId).toList());
+        }
+        return delivered;
+    }
+
+    private Log toLog(OutboxEvent event) {
+        //롤백 후 다시 전달할 때 이전 시도의 id 가 남지 않도록 매번 새로 만듦
+        return new Log(event.getPayload());
+    }
+
+    private void record(List<OutboxEvent> delivered) {
+        deliveredCount.addAndGet(delivered.size());
+        Timer timer = lagTimer;
+        if (timer == null) {
+            return;
+        }
+        Instant now = Instant.now();
+        for (OutboxEvent event : delivered) {
+            timer.record(Duration.between(event.getCreatedAt(), now));
+        }
+    }
+}
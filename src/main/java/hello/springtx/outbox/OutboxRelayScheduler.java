@@ -0,0 +1,27 @@
+package hello.springtx.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * OutboxRelayScheduler
+ - springtx.outbox.relay.poll-interval-ms 마다 OutboxRelay 로 아웃박스를 비움
+ - springtx.outbox.relay.enabled=true 인 경우만 등록 (기본 false, 실행 프로파일 run 과 OutboxRelayTest 에서 사용)
+ -> 다른 테스트, 벤치마크에서 백그라운드 폴링이 커넥션 수와 지표에 섞이지 않도록 함
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableScheduling
+@ConditionalOnProperty(name = "springtx.outbox.relay.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class OutboxRelayScheduler {
+
+    private final OutboxRelay outboxRelay;
+
+    @Scheduled(fixedDelayString = "${springtx.outbox.relay.poll-interval-ms:200}")
+    public void poll() {
+        outboxRelay.drain();
+    }
+}
@@ -0,0 +1,79 @@
+package hello.springtx.outbox;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.LockOptions;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * OutboxRepository
+ - 아웃박스 이벤트 저장, 가져오기(claim), 삭제 기능을 제공
+ */
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class OutboxRepository {
+
+    private final EntityManager em;
+
+    @Transactional
+    public void save(OutboxEvent event) {
+        log.info("outbox 저장 eventType={}", event.getEventType());
+        em.persist(event);
+    }
+
+    /**
+     * claim
+     - 오래된 이벤트부터 limit 건을 가져오면서 행 잠금(select ... for update)
+     - 잠금 타임아웃 힌트를 SKIP_LOCKED 로 지정해서, 지원하는 DB(PostgreSQL, MySQL 8, Oracle)에서는 다른 relay 가 잡은 행을 건너뜀
+     -> 여러 relay 인스턴스가 같은 행을 중복 처리하지 않음
+     - SKIP LOCKED 를 지원하지 않는 방언에서는 일반 for update 로 실행됨 (H2 : relay 하나로 폴링)
+     - 반드시 트랜잭션 안에서 호출해야 하며, 잠금은 트랜잭션이 끝날 때 풀림
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<OutboxEvent> claim(int limit, int maxAttempts) {
+        return em.createQuery("select e from OutboxEvent e where e.attempts < :maxAttempts order by e.id", OutboxEvent.class)
+                .setParameter("maxAttempts", maxAttempts)
+                .setMaxResults(limit)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setHint("jakarta.persistence.lock.timeout", LockOptions.SKIP_LOCKED)
+                .getResultList();
+    }
+
+    @Transactional
+    public int deleteAll(Collection<Long> ids) {
+        return em.createQuery("delete from OutboxEvent e where e.id in :ids")
+                .setParameter("ids", ids)
+                .executeUpdate();
+    }
+
+    @Transactional
+    public void increaseAttempts(Long id) {
+        em.createQuery("update OutboxEvent e set e.attempts = e.attempts + 1 where e.id = :id")
+                .setParameter("id", id)
+                .executeUpdate();
+    }
+
+    public Optional<OutboxEvent> find(String payload) {
+        return em.createQuery("select e from OutboxEvent e where e.payload = :payload", OutboxEvent.class)
+                .setParameter("payload", payload)
+                .setMaxResults(1)
+                .getResultList()
+                .stream()
+                .findAny();
+    }
+
+    public long countPending(int maxAttempts) {
+        return em.createQuery("select count(e) from OutboxEvent e where e.attempts < :maxAttempts", Long.class)
+                .setParameter("maxAttempts", maxAttempts)
+                .getSingleResult();
+    }
+}
@@ -0,0 +1,195 @@
+package hello.springtx.propagation;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * AsyncLogWriter
+ - LogRepository.save(REQUIRES_NEW) 대신 사용할 수 있는 비동기 로그 저장 방식
+ - 요청 스레드는 고정 크기 큐에 로그를 넣기만 하고, 전용 writer 스레드가 모아서 한 번의 트랜잭션으로 저장
+ -> 요청 처리 중에 두 번째 커넥션을 획득하지 않으므로 커넥션 풀을 절반만 쓰는 문제가 사라짐
+
+ * 예외 처리
+ - 일괄 저장이 실패하면 해당 묶음을 한 건씩 다시 저장하고, 실패한 로그만 버림
+ - 로그 저장 실패가 회원 저장 트랜잭션에 영향을 주지 않음 (joinV2 + REQUIRES_NEW 와 같은 결과)
+
+ * 큐가 가득 찬 경우
+ - 호출한 스레드에서 LogRepository.save 로 직접 저장 (기존 REQUIRES_NEW 방식으로 처리하며 속도를 늦춤)
+
+ * 지표 (MeterBinder)
+ - log.async.queue.depth : 큐에 쌓인 로그 수
+ - log.async.flush : 일괄 저장 소요 시간
+ - log.async.failed : 저장에 실패해서 버린 로그 수
+ */
+@Slf4j
+@Component
+public class AsyncLogWriter implements MeterBinder {
+
+    private final LogRepository logRepository;
+    private final BlockingQueue<Log> queue;
+    private final int batchSize;
+    private final long pollTimeoutMillis;
+    private final Thread writer;
+
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong lastFlushNanos = new AtomicLong();
+
+    private volatile boolean running = true;
+
+    @Nullable
+    private volatile Timer flushTimer;
+
+    public AsyncLogWriter(LogRepository logRepository,
+                          @Value("${springtx.log.async.capacity:10000}") int capacity,
+                          @Value("${springtx.log.async.batch-size:100}") int batchSize,
+                          @Value("${springtx.log.async.poll-timeout-ms:50}") long pollTimeoutMillis) {
+        this.logRepository = logRepository;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.pollTimeoutMillis = pollTimeoutMillis;
+        this.writer = new Thread(this::run, "async-log-writer");
+        this.writer.setDaemon(true);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("log.async.queue.depth", queue, BlockingQueue::size)
+                .description("저장 대기 중인 로그 수")
+                .register(registry);
+        FunctionCounter.builder("log.async.failed", failedCount, AtomicLong::get)
+                .description("저장에 실패해서 버린 로그 수")
+                .register(registry);
+        flushTimer = Timer.builder("log.async.flush")
+                .description("로그 일괄 저장 소요 시간")
+                .register(registry);
+    }
+
+    @PostConstruct
+    public void start() {
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    public void write(Log logMessage) {
+        pending.incrementAndGet();
+        if (queue.offer(logMessage)) {
+            return;
+        }
+
+        log.info("log 큐가 가득 차서 직접 저장합니다. logMessage = {}", logMessage.getMessage());
+        try {
+            logRepository.save(logMessage);
+        } catch (RuntimeException e) {
+            failedCount.incrementAndGet();
+            log.info("log 저장에 실패했습니다. logMessage = {}", logMessage.getMessage());
+        } finally {
+            pending.decrementAndGet();
+        }
+    }
+
+    /**
+     * 큐에 남은 로그가 모두 저장(또는 실패 처리)될 때까지 대기
+     */
+    public boolean awaitIdle(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (pending.get() > 0) {
+            if (System.nanoTime() - deadline > 0) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    public long getFlushCount() {
+        return flushCount.get();
+    }
+
+    public Duration getLastFlushLatency() {
+        return Duration.ofNanos(lastFlushNanos.get());
+    }
+
+    private void run() {
+        List<Log> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Log first = queue.poll(pollTimeoutMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                pending.addAndGet(-batch.size());
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Log> batch) {
+        long start = System.nanoTime();
+        try {
+            logRepository.saveAll(batch);
+        } catch (RuntimeException e) {
+            log.info("log 일괄 저장 실패, 한 건씩 다시 저장합니다. size = {}", batch.size());
+            for (Log logMessage : batch) {
+                saveOne(logMessage);
+            }
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            lastFlushNanos.set(elapsed);
+            flushCount.incrementAndGet();
+            Timer timer = flushTimer;
+            if (timer != null) {
+                timer.record(elapsed, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private void saveOne(Log logMessage) {
+        //롤백된 묶음에서 persist 시점에 할당된 id 를 지워야 다시 persist 할 수 있음
+        logMessage.setId(null);
+        try {
+            logRepository.save(logMessage);
+        } catch (RuntimeException e) {
+            failedCount.incrementAndGet();
+            log.info("log 저장에 실패했습니다. logMessage = {}", logMessage.getMessage());
+        }
+    }
+}
@@ -1,22 +1,30 @@
 package hello.springtx.propagation;
 
+import hello.springtx.jpa.PooledSequenceGenerator;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 /**
  * Log
  - JPA 를 통해 관리하는 로그 엔티티
  */
 @Entity
+@Table(indexes = @Index(name = "idx_log_message", columnList = "message"))
 @Getter
 @Setter
 public class Log {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "log_seq")
+    @GenericGenerator(name = "log_seq", type = PooledSequenceGenerator.class,
+            parameters = @Parameter(name = "sequence_name", value = "log_seq"))
     private Long id;
     private String message;
 
@@ -1,13 +1,19 @@
 package hello.springtx.propagation;
 
 import jakarta.persistence.EntityManager;
-import lombok.RequiredArgsConstructor;
+import jakarta.persistence.TypedQuery;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 /**
  * LogRepository
@@ -16,15 +22,34 @@ import java.util.Optional;
  */
 @Slf4j
 @Repository
-@RequiredArgsConstructor
 public class LogRepository {
 
     private final EntityManager em;
 
+    //JDBC 배치 크기와 맞춰서 flush/clear 단위를 정함
+    private final int batchSize;
+
+    //streamAll 에서 JDBC 드라이버에 전달하는 fetch size
+    private final int fetchSize;
+
+    //message 조회 캐시 (springtx.lookup-cache.max-size 가 0 이면 사용하지 않음)
+    private final LookupCache<String, Log> cache;
+
+    public LogRepository(EntityManager em,
+                         @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize,
+                         @Value("${springtx.lookup-cache.max-size:0}") int lookupCacheSize,
+                         @Value("${springtx.export.fetch-size:1000}") int fetchSize) {
+        this.em = em;
+        this.batchSize = batchSize;
+        this.fetchSize = fetchSize;
+        this.cache = new LookupCache<>(lookupCacheSize);
+    }
+
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void save(Log logMessage) {
         log.info("log 저장");
         em.persist(logMessage);
+        cache.invalidate(logMessage.getMessage());
 
         if(logMessage.getMessage().contains("로그예외")) {
             log.info("log 저장시 예외 발생");
@@ -32,11 +57,135 @@ public class LogRepository {
         }
     }
 
+    /**
+     * saveNested
+     - save() 와 같지만 REQUIRES_NEW 대신 NESTED 전파를 사용 (SavepointHibernateJpaDialect 필요)
+     - 외부 트랜잭션이 있으면 같은 커넥션에 세이브포인트를 만들고, 예외가 발생하면 세이브포인트까지만 롤백
+     -> 두 번째 커넥션을 획득하지 않음
+     - 외부 트랜잭션이 롤백되면 로그도 함께 롤백됨 (REQUIRES_NEW 와 다른 점)
+
+     * 영속성 컨텍스트
+     - 세이브포인트 안에서 insert 가 실행되도록 바로 flush
+     - 예외 발생시 엔티티를 detach 해서 외부 트랜잭션 커밋 시점에 다시 반영되지 않도록 함
+     */
+    @Transactional(propagation = Propagation.NESTED)
+    public void saveNested(Log logMessage) {
+        log.info("log 저장 (NESTED)");
+        em.persist(logMessage);
+        em.flush();
+        cache.invalidate(logMessage.getMessage());
+
+        if(logMessage.getMessage().contains("로그예외")) {
+            log.info("log 저장시 예외 발생");
+            em.detach(logMessage);
+            throw new RuntimeException("예외 발생");
+        }
+    }
+
+    /**
+     * saveAll
+     - 여러 로그를 하나의 트랜잭션으로 저장 (AsyncLogWriter 의 일괄 저장에 사용)
+     - 하나라도 로그예외 가 포함되면 예외가 발생하고 전체가 롤백됨
+     - batchSize 마다 flush/clear 하여 영속성 컨텍스트가 계속 커지지 않도록 함
+     */
+    @Transactional
+    public void saveAll(List<Log> logMessages) {
+        log.info("log 일괄 저장 size={}", logMessages.size());
+        for (int i = 0; i < logMessages.size(); i++) {
+            Log logMessage = logMessages.get(i);
+            em.persist(logMessage);
+            cache.invalidate(logMessage.getMessage());
+
+            if(logMessage.getMessage().contains("로그예외")) {
+                log.info("log 저장시 예외 발생");
+                throw new RuntimeException("예외 발생");
+            }
+
+            if ((i + 1) % batchSize == 0) {
+                em.flush();
+                em.clear();
+            }
+        }
+    }
+
+    /**
+     * find
+     - message 인덱스(idx_log_message)를 사용하고, 첫 번째 결과 한 건만 가져옴
+     - 캐시를 사용하는 경우 캐시 적중 여부와 관계없이 복사본을 반환
+     -> 캐시에는 읽기 전용 트랜잭션에서 조회한 결과만 보관 (LookupCache.fill)
+     - readOnly 트랜잭션 : 읽기 라우팅을 사용하면 replica 에서 조회 (쓰기 트랜잭션에 참여하면 primary)
+     */
+    @Transactional(readOnly = true)
     public Optional<Log> find(String message) {
+        if (!cache.isEnabled()) {
+            return query(message);
+        }
+
+        Log cached = cache.get(message);
+        if (cached != null) {
+            return Optional.of(copyOf(cached));
+        }
+        long generation = cache.generation();
+        Optional<Log> logMessage = query(message).map(LogRepository::copyOf);
+        logMessage.ifPresent(l -> cache.fill(message, copyOf(l), generation));
+        return logMessage;
+    }
+
+    private Optional<Log> query(String message) {
         return em.createQuery("select l from Log l where l.message = :message", Log.class)
                 .setParameter("message", message)
+                .setMaxResults(1)
                 .getResultList()
                 .stream()
                 .findAny();
     }
+
+    /**
+     * findAll
+     - 전체 로그 조회 (대량 조회)
+     - readOnly 트랜잭션이면 org.hibernate.readOnly 힌트로 엔티티를 읽기 전용으로 로딩
+     -> 변경 감지용 스냅샷(로딩 시점 값 복사본)을 만들지 않고, 커밋 시점에 변경 감지 대상에서도 제외됨
+     - 쓰기 트랜잭션에 참여한 경우에는 힌트를 적용하지 않음 (조회 후 수정한 내용이 반영되어야 하므로)
+     */
+    @Transactional(readOnly = true)
+    public List<Log> findAll() {
+        TypedQuery<Log> query = em.createQuery("select l from Log l order by l.id", Log.class);
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            query.setHint(HibernateHints.HINT_READ_ONLY, true);
+        }
+        return query.getResultList();
+    }
+
+    /**
+     * streamAll
+     - 전체 로그를 한 번에 List 로 만들지 않고 커서로 한 건씩 읽음 (대량 export 용)
+     - fetchSize 만큼씩 드라이버가 가져오고, batchSize 건마다 영속성 컨텍스트를 clear 해서 메모리 사용량을 일정하게 유지
+     - readOnly 트랜잭션이면 org.hibernate.readOnly 힌트로 스냅샷을 만들지 않음
+
+     * 주의
+     - Stream 은 트랜잭션(커넥션)이 열려 있는 동안만 읽을 수 있으므로 MANDATORY 전파 사용
+     -> 호출하는 쪽에서 트랜잭션을 시작하고, 트랜잭션 안에서 Stream 을 끝까지 소비한 뒤 close 해야 함 (try-with-resources)
+     - clear 는 영속성 컨텍스트 전체를 비우므로, 같은 트랜잭션에서 앞서 조회한 엔티티도 준영속 상태가 됨
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Stream<Log> streamAll() {
+        TypedQuery<Log> query = em.createQuery("select l from Log l order by l.id", Log.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize);
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            query.setHint(HibernateHints.HINT_READ_ONLY, true);
+        }
+        AtomicInteger count = new AtomicInteger();
+        return query.getResultStream()
+                .peek(logMessage -> {
+                    if (count.incrementAndGet() % batchSize == 0) {
+                        em.clear();
+                    }
+                });
+    }
+
+    private static Log copyOf(Log logMessage) {
+        Log copy = new Log(logMessage.getMessage());
+        copy.setId(logMessage.getId());
+        return copy;
+    }
 }
@@ -0,0 +1,113 @@
+package hello.springtx.propagation;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LookupCache
+ - 리포지토리 조회 결과를 보관하는 크기 제한 LRU 캐시 (maxSize 가 0 이면 사용하지 않음)
+ - 조회 결과가 있는 경우만 보관 -> 아직 커밋되지 않은 데이터를 "없음" 으로 기억하는 문제를 피함
+
+ * 무효화
+ - 저장시 해당 키를 즉시 제거하고, 트랜잭션이 끝날 때(커밋/롤백) 한 번 더 제거
+
+ * 채우기 (fill)
+ - 읽기 전용 트랜잭션(또는 트랜잭션 밖)에서 조회한 값만 보관
+ -> 쓰기 트랜잭션은 아직 커밋하지 않은 자신의 변경(저장 후 조회)을 볼 수 있으므로, 다른 스레드에 노출하지 않음
+ - 조회 전에 읽은 세대(generation)가 그대로일 때만 보관
+ -> 조회하는 동안 다른 트랜잭션이 저장하고 무효화했다면, 무효화 이전에 읽은 오래된 값을 다시 넣지 않음
+ */
+class LookupCache<K, V> {
+
+    private final int maxSize;
+    private final Map<K, V> entries;
+
+    //evict 할 때마다 증가 (fill 에서 조회 중에 무효화가 있었는지 확인)
+    private long generation;
+
+    private long hitCount;
+    private long missCount;
+
+    LookupCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > LookupCache.this.maxSize;
+            }
+        };
+    }
+
+    boolean isEnabled() {
+        return maxSize > 0;
+    }
+
+    synchronized V get(K key) {
+        V value = entries.get(key);
+        if (value == null) {
+            missCount++;
+        } else {
+            hitCount++;
+        }
+        return value;
+    }
+
+    synchronized void put(K key, V value) {
+        entries.put(key, value);
+    }
+
+    synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * 조회 결과를 보관
+     - generation : 조회 전에 generation() 으로 읽은 값
+     */
+    void fill(K key, V value, long generation) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return;
+        }
+        synchronized (this) {
+            if (this.generation == generation) {
+                entries.put(key, value);
+            }
+        }
+    }
+
+    synchronized void evict(K key) {
+        entries.remove(key);
+        generation++;
+    }
+
+    void invalidate(K key) {
+        if (!isEnabled()) {
+            return;
+        }
+        evict(key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(key);
+                }
+            });
+        }
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    synchronized long getMissCount() {
+        return missCount;
+    }
+}
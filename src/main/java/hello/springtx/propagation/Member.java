@@ -1,25 +1,46 @@
 package hello.springtx.propagation;
 
+import hello.springtx.jpa.PooledSequenceGenerator;
+import hello.springtx.cache.SecondLevelCacheConfig;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 /**
  * Member
  - JPA 를 통해 관리하는 회원 엔티티
+ - 2차 캐시(springtx.second-level-cache.enabled=true) 사용시 member 영역에 보관
+ -> READ_WRITE : 수정 중인 항목은 잠가두고 커밋 후 반영, 롤백되면 캐시에 반영하지 않음
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.MEMBER_REGION)
+@Table(indexes = @Index(name = "idx_member_username", columnList = "username"))
 @Getter
 @Setter
 public class Member {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "member_seq")
+    @GenericGenerator(name = "member_seq", type = PooledSequenceGenerator.class,
+            parameters = @Parameter(name = "sequence_name", value = "member_seq"))
     private Long id;
     private String username;
 
+    //낙관적 락 : 동시에 같은 회원을 수정하면 나중에 커밋하는 쪽에서 충돌 예외 발생
+    @Version
+    private Long version;
+
     public Member() {
     }
 
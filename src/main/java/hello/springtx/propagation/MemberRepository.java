@@ -1,12 +1,21 @@
 package hello.springtx.propagation;
 
+import jakarta.persistence.CacheStoreMode;
 import jakarta.persistence.EntityManager;
-import lombok.RequiredArgsConstructor;
+import jakarta.persistence.TypedQuery;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 /**
  * MemberRepository
@@ -14,22 +23,164 @@ import java.util.Optional;
  */
 @Slf4j
 @Repository
-@RequiredArgsConstructor
 public class MemberRepository {
 
     private final EntityManager em;
 
+    //JDBC 배치 크기와 맞춰서 flush/clear 단위를 정함
+    private final int batchSize;
+
+    //streamAll 에서 JDBC 드라이버에 전달하는 fetch size
+    private final int fetchSize;
+
+    //username 조회 캐시 (springtx.lookup-cache.max-size 가 0 이면 사용하지 않음)
+    private final LookupCache<String, Member> cache;
+
+    public MemberRepository(EntityManager em,
+                            @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize,
+                            @Value("${springtx.lookup-cache.max-size:0}") int lookupCacheSize,
+                            @Value("${springtx.export.fetch-size:1000}") int fetchSize) {
+        this.em = em;
+        this.batchSize = batchSize;
+        this.fetchSize = fetchSize;
+        this.cache = new LookupCache<>(lookupCacheSize);
+    }
+
+    /**
+     * save
+     - persist 는 insert 를 바로 실행하지 않고 커밋 시점 flush 까지 미룸
+     -> pooled 시퀀스(allocation_size)로 id 를 메모리에서 할당하고, 커밋 시점에 JDBC 배치(batch_size, order_inserts)로 묶어서 실행
+     - 따라서 save 를 트랜잭션 끝까지 따로 모아둘 필요가 없고, save 직후에도 getId() 를 사용할 수 있음
+     */
     @Transactional
     public void save(Member member) {
         log.info("member 저장");
         em.persist(member);
+        cache.invalidate(member.getUsername());
+    }
+
+    /**
+     * saveAll
+     - batchSize 마다 flush/clear 하여 영속성 컨텍스트가 계속 커지지 않도록 함
+     - flush 시점에 JDBC 배치로 insert 가 묶여서 실행됨 (hibernate.jdbc.batch_size, order_inserts)
+
+     * 주의
+     - clear 는 영속성 컨텍스트 전체를 비우므로, 외부 트랜잭션에 참여한 경우 앞서 조회한 엔티티도 준영속 상태가 됨
+     */
+    @Transactional
+    public void saveAll(List<Member> members) {
+        log.info("member 일괄 저장 size={}", members.size());
+        for (int i = 0; i < members.size(); i++) {
+            Member member = members.get(i);
+            em.persist(member);
+            cache.invalidate(member.getUsername());
+            if ((i + 1) % batchSize == 0) {
+                em.flush();
+                em.clear();
+            }
+        }
     }
 
+    /**
+     * find
+     - username 인덱스(idx_member_username)를 사용하고, 첫 번째 결과 한 건만 가져옴
+     - 캐시를 사용하는 경우 캐시 적중 여부와 관계없이 복사본을 반환 (영속성 컨텍스트와 분리된 준영속 상태)
+     -> 캐시에는 읽기 전용 트랜잭션에서 조회한 결과만 보관 (LookupCache.fill)
+     - readOnly 트랜잭션 : 읽기 라우팅을 사용하면 replica 에서 조회 (쓰기 트랜잭션에 참여하면 primary)
+     - 2차 캐시 사용시 쿼리 캐시에 결과 id 를 보관하고 엔티티는 member 영역에서 가져옴 (회원 테이블이 수정되면 무효화)
+     */
+    @Transactional(readOnly = true)
     public Optional<Member> find(String username) {
+        if (!cache.isEnabled()) {
+            return query(username);
+        }
+
+        Member cached = cache.get(username);
+        if (cached != null) {
+            return Optional.of(copyOf(cached));
+        }
+        long generation = cache.generation();
+        Optional<Member> member = query(username).map(MemberRepository::copyOf);
+        member.ifPresent(m -> cache.fill(username, copyOf(m), generation));
+        return member;
+    }
+
+    private Optional<Member> query(String username) {
         return em.createQuery("select m from Member m where m.username=:username", Member.class)
                 .setParameter("username", username)
+                .setMaxResults(1)
+                .setHint(HibernateHints.HINT_CACHEABLE, true)
                 .getResultList()
                 .stream()
                 .findAny();
     }
+
+    /**
+     * exists
+     - 엔티티를 만들지 않고 id 한 건만 조회해서 존재 여부를 확인
+     */
+    @Transactional(readOnly = true)
+    public boolean exists(String username) {
+        if (cache.isEnabled() && cache.get(username) != null) {
+            return true;
+        }
+        return !em.createQuery("select m.id from Member m where m.username=:username", Long.class)
+                .setParameter("username", username)
+                .setMaxResults(1)
+                .setHint(HibernateHints.HINT_CACHEABLE, true)
+                .getResultList()
+                .isEmpty();
+    }
+
+    /**
+     * findAll
+     - 전체 회원 조회 (대량 조회)
+     - readOnly 트랜잭션이면 org.hibernate.readOnly 힌트로 엔티티를 읽기 전용으로 로딩
+     -> 변경 감지용 스냅샷(로딩 시점 값 복사본)을 만들지 않고, 커밋 시점에 변경 감지 대상에서도 제외됨
+     - 쓰기 트랜잭션에 참여한 경우에는 힌트를 적용하지 않음 (조회 후 수정한 내용이 반영되어야 하므로)
+     */
+    @Transactional(readOnly = true)
+    public List<Member> findAll() {
+        TypedQuery<Member> query = em.createQuery("select m from Member m order by m.id", Member.class);
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            query.setHint(HibernateHints.HINT_READ_ONLY, true);
+        }
+        return query.getResultList();
+    }
+
+    /**
+     * streamAll
+     - 전체 회원을 한 번에 List 로 만들지 않고 커서로 한 건씩 읽음 (대량 export 용)
+     - fetchSize 만큼씩 드라이버가 가져오고, batchSize 건마다 영속성 컨텍스트를 clear 해서 메모리 사용량을 일정하게 유지
+     - readOnly 트랜잭션이면 org.hibernate.readOnly 힌트로 스냅샷을 만들지 않음
+
+     * 주의
+     - Stream 은 트랜잭션(커넥션)이 열려 있는 동안만 읽을 수 있으므로 MANDATORY 전파 사용
+     -> 호출하는 쪽에서 트랜잭션을 시작하고, 트랜잭션 안에서 Stream 을 끝까지 소비한 뒤 close 해야 함 (try-with-resources)
+     - clear 는 영속성 컨텍스트 전체를 비우므로, 같은 트랜잭션에서 앞서 조회한 엔티티도 준영속 상태가 됨
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Stream<Member> streamAll() {
+        //전체를 한 번 훑는 조회 결과로 2차 캐시(member 영역)를 채우지 않음
+        TypedQuery<Member> query = em.createQuery("select m from Member m order by m.id", Member.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(SpecHints.HINT_SPEC_CACHE_STORE_MODE, CacheStoreMode.BYPASS);
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            query.setHint(HibernateHints.HINT_READ_ONLY, true);
+        }
+        AtomicInteger count = new AtomicInteger();
+        return query.getResultStream()
+                .peek(member -> {
+                    if (count.incrementAndGet() % batchSize == 0) {
+                        em.clear();
+                    }
+                });
+    }
+
+    private static Member copyOf(Member member) {
+        Member copy = new Member(member.getUsername());
+        copy.setId(member.getId());
+        copy.setVersion(member.getVersion());
+        return copy;
+    }
 }
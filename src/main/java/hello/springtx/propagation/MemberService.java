@@ -1,5 +1,7 @@
 package hello.springtx.propagation;
 
+import hello.springtx.outbox.OutboxEvent;
+import hello.springtx.outbox.OutboxRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -16,11 +18,14 @@ public class MemberService {
 
     private final MemberRepository memberRepository;
     private final LogRepository logRepository;
+    private final AsyncLogWriter asyncLogWriter;
+    private final OutboxRepository outboxRepository;
 
     /**
      * joinV1
      - 회원과 DB 로그를 함께 남기는 비즈니스 로직
      - 현재 별도의 트랜잭션 설정은 하지 않음
+     - @RetryOnTransientFailure 를 붙이지 않음 : 로그는 REQUIRES_NEW 로 먼저 커밋되므로 다시 시도할 때마다 로그가 추가됨 (RetryTest)
      */
     @Transactional  //추가
     public void joinV1(String username) {
@@ -61,4 +66,69 @@ public class MemberService {
 
         log.info("== logRepository 호출 종료 == ");
     }
+
+    /**
+     * joinWithAsyncLog
+     - joinV2() 와 같이 로그 저장에 실패해도 회원 저장은 유지
+     - 로그는 AsyncLogWriter 의 큐에 넣고, 별도 writer 스레드가 모아서 저장
+     -> 요청 스레드는 REQUIRES_NEW 트랜잭션과 두 번째 커넥션을 사용하지 않음
+     */
+    @Transactional
+    public void joinWithAsyncLog(String username) {
+        Member member = new Member(username);
+        Log logMessage = new Log(username);
+
+        log.info("== memberRepository 호출 시작 ==");
+        memberRepository.save(member);
+        log.info("== memberRepository 호출 종료 ==");
+
+        log.info("== asyncLogWriter 호출 ==");
+        asyncLogWriter.write(logMessage);
+    }
+
+    /**
+     * joinWithNestedLog
+     - joinV2() 와 같이 로그 저장 예외를 복구해서 회원 저장은 유지
+     - 로그 저장에 REQUIRES_NEW 대신 NESTED(세이브포인트)를 사용
+     -> 요청 하나가 커넥션 하나만 사용
+     - 회원 저장 트랜잭션이 롤백되면 로그도 함께 롤백됨
+     */
+    @Transactional
+    public void joinWithNestedLog(String username) {
+        Member member = new Member(username);
+        Log logMessage = new Log(username);
+
+        log.info("== memberRepository 호출 시작 ==");
+        memberRepository.save(member);
+        log.info("== memberRepository 호출 종료 ==");
+
+        log.info("== logRepository 호출 시작 ==");
+        try {
+            logRepository.saveNested(logMessage);
+        } catch (RuntimeException e) {
+            log.info("log 저장에 실패했습니다. logMessage = {}", logMessage.getMessage());
+            log.info("정상 흐름 변환");
+        }
+
+        log.info("== logRepository 호출 종료 == ");
+    }
+
+    /**
+     * joinWithOutbox
+     - joinV1() 의 로그 저장(REQUIRES_NEW)을 같은 트랜잭션의 아웃박스 이벤트 저장으로 대체
+     - 회원과 이벤트가 함께 커밋되거나 함께 롤백되고, 요청은 커넥션 하나만 사용
+     - 로그는 OutboxRelay 가 나중에 저장 (at-least-once)
+     */
+    @Transactional
+    public void joinWithOutbox(String username) {
+        Member member = new Member(username);
+
+        log.info("== memberRepository 호출 시작 ==");
+        memberRepository.save(member);
+        log.info("== memberRepository 호출 종료 ==");
+
+        log.info("== outboxRepository 호출 시작 ==");
+        outboxRepository.save(new OutboxEvent(OutboxEvent.MEMBER_JOINED, username));
+        log.info("== outboxRepository 호출 종료 ==");
+    }
 }
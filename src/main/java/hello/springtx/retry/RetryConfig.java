@@ -0,0 +1,38 @@
+package hello.springtx.retry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+
+/**
+ * RetryConfig
+ - @RetryOnTransientFailure 메서드에 RetryInterceptor 를 적용하는 Advisor 등록
+ - springtx.retry.enabled=false 이면 등록하지 않음
+
+ * 순서
+ - 트랜잭션 Advisor 의 기본 순서는 LOWEST_PRECEDENCE, 값이 작을수록 바깥(먼저)에서 실행됨
+ -> retry(LOWEST_PRECEDENCE - 1) -> 트랜잭션 -> 실제 메서드 순서로 호출되어 시도마다 새 트랜잭션이 시작됨
+ - ROLE_INFRASTRUCTURE : 트랜잭션과 같은 자동 프록시 생성기가 같은 프록시에 함께 적용함
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "springtx.retry.enabled", havingValue = "true", matchIfMissing = true)
+public class RetryConfig {
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor transientRetryAdvisor(ObjectProvider<MeterRegistry> registry) {
+        RetryInterceptor interceptor = new RetryInterceptor(new TransientFailureClassifier(), registry);
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(
+                AnnotationMatchingPointcut.forMethodAnnotation(RetryOnTransientFailure.class), interceptor);
+        advisor.setOrder(Ordered.LOWEST_PRECEDENCE - 1);
+        return advisor;
+    }
+}
@@ -0,0 +1,126 @@
+package hello.springtx.retry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * RetryInterceptor
+ - @RetryOnTransientFailure 메서드에서 일시적인 예외가 발생하면 대기 후 다시 호출
+ - 트랜잭션 AOP 보다 바깥(먼저)에서 실행되도록 RetryConfig 에서 순서를 지정
+ -> 실패한 시도의 트랜잭션은 롤백되고 커넥션도 반납된 뒤, 다음 시도는 새 트랜잭션으로 시작
+
+ * 지표
+ - transaction.retry.attempts : 재시도한 횟수 (name, exception)
+ - transaction.retry.results : 재시도가 필요했던 호출의 최종 결과 (recovered, exhausted)
+ */
+@Slf4j
+public class RetryInterceptor implements MethodInterceptor {
+
+    private final TransientFailureClassifier classifier;
+    private final ObjectProvider<MeterRegistry> registry;
+    private final Map<Method, RetryOnTransientFailure> policies = new ConcurrentHashMap<>();
+
+    public RetryInterceptor(TransientFailureClassifier classifier, ObjectProvider<MeterRegistry> registry) {
+        this.classifier = classifier;
+        this.registry = registry;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        RetryOnTransientFailure policy = policyOf(invocation);
+        //외부 트랜잭션에 참여하는 경우 재시도는 외부 트랜잭션을 시작한 쪽에서 해야 함
+        if (policy == null || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return invocation.proceed();
+        }
+
+        String name = invocation.getMethod().getDeclaringClass().getSimpleName() + "." + invocation.getMethod().getName();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Object result = attemptOf(invocation, attempt).proceed();
+                if (attempt > 1) {
+                    recordResult(name, "recovered");
+                }
+                return result;
+            } catch (Throwable ex) {
+                if (!classifier.isTransient(ex)) {
+                    throw ex;
+                }
+                if (attempt >= policy.maxAttempts()) {
+                    log.info("재시도 횟수 초과 name={} attempts={}", name, attempt);
+                    recordResult(name, "exhausted");
+                    throw ex;
+                }
+
+                long backoff = backoffOf(policy, attempt);
+                log.info("일시적인 예외 발생, 재시도 name={} attempt={} backoff={}ms ex={}",
+                        name, attempt, backoff, ex.toString());
+                recordAttempt(name, ex);
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw ex;
+                }
+            }
+        }
+    }
+
+    /**
+     * 같은 MethodInvocation 은 proceed 를 한 번만 호출할 수 있으므로, 두 번째 시도부터는 복제본으로 나머지 인터셉터(트랜잭션)를 다시 실행
+     */
+    private static MethodInvocation attemptOf(MethodInvocation invocation, int attempt) {
+        if (attempt > 1 && invocation instanceof ProxyMethodInvocation proxyInvocation) {
+            return proxyInvocation.invocableClone();
+        }
+        return invocation;
+    }
+
+    //exponential backoff + jitter : 계산한 대기 시간의 절반 ~ 전체 사이의 임의 값
+    static long backoffOf(RetryOnTransientFailure policy, int attempt) {
+        double delay = policy.backoffMs() * Math.pow(policy.multiplier(), attempt - 1);
+        long capped = (long) Math.min(delay, policy.maxBackoffMs());
+        if (capped <= 1) {
+            return Math.max(capped, 0);
+        }
+        return capped / 2 + ThreadLocalRandom.current().nextLong(capped - capped / 2 + 1);
+    }
+
+    private RetryOnTransientFailure policyOf(MethodInvocation invocation) {
+        Method method = invocation.getMethod();
+        Class<?> targetClass = (invocation.getThis() != null ? AopUtils.getTargetClass(invocation.getThis()) : null);
+        Method specificMethod = AopUtils.getMostSpecificMethod(method, targetClass);
+        return policies.computeIfAbsent(specificMethod,
+                m -> AnnotatedElementUtils.findMergedAnnotation(m, RetryOnTransientFailure.class));
+    }
+
+    private void recordAttempt(String name, Throwable ex) {
+        registry.ifAvailable(r -> Counter.builder("transaction.retry.attempts")
+                .description("일시적인 예외로 재시도한 횟수")
+                .tag("name", name)
+                .tag("exception", ex.getClass().getSimpleName())
+                .register(r)
+                .increment());
+    }
+
+    private void recordResult(String name, String outcome) {
+        registry.ifAvailable(r -> Counter.builder("transaction.retry.results")
+                .description("재시도가 필요했던 호출의 최종 결과")
+                .tag("name", name)
+                .tag("outcome", outcome)
+                .register(r)
+                .increment());
+    }
+}
@@ -0,0 +1,32 @@
+package hello.springtx.retry;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * RetryOnTransientFailure
+ - 락 타임아웃, 데드락, 직렬화 실패 같은 일시적인 예외가 발생하면 메서드를 다시 호출 (TransientFailureClassifier)
+ - @Transactional 과 함께 사용, RetryInterceptor 가 트랜잭션 AOP 보다 바깥에서 실행되므로 시도마다 새 트랜잭션이 시작됨
+ - 대기 시간 : backoffMs * multiplier^(시도-1), 최대 maxBackoffMs, 그 절반 ~ 전체 사이의 임의 값 (jitter)
+
+ * 주의
+ - 이미 시작된 트랜잭션에 참여하는 호출은 재시도하지 않음 (외부 트랜잭션이 롤백 대상이 되므로 다시 호출해도 의미가 없음)
+ - 내부 호출(this.method())은 프록시를 거치지 않으므로 재시도도 적용되지 않음 (InternalCallV1Test)
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RetryOnTransientFailure {
+
+    //첫 번째 호출을 포함한 최대 시도 횟수
+    int maxAttempts() default 3;
+
+    long backoffMs() default 50;
+
+    long maxBackoffMs() default 1000;
+
+    double multiplier() default 2.0;
+}
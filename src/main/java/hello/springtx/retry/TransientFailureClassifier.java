@@ -0,0 +1,62 @@
+package hello.springtx.retry;
+
+import hello.springtx.timeout.AdaptiveTimeoutPolicy;
+import jakarta.persistence.LockTimeoutException;
+import jakarta.persistence.PessimisticLockException;
+import org.springframework.dao.TransientDataAccessException;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientException;
+import java.util.Set;
+
+/**
+ * TransientFailureClassifier
+ - 예외와 원인(cause) 체인을 따라가면서 다시 시도하면 성공할 수 있는 예외인지 판단
+
+ * 재시도 대상
+ - 스프링 예외 변환 결과 : TransientDataAccessException (락 획득 실패, 데드락, 직렬화 실패 등)
+ - JPA 예외 : LockTimeoutException, PessimisticLockException
+ - JDBC : SQLTransientException, SQLState 클래스 40 (트랜잭션 롤백 : 직렬화 실패 40001, 데드락 40P01 등)
+   그리고 락 대기 타임아웃 SQLState (HYT00 : H2, 55P03 : PostgreSQL)
+
+ * 재시도 제외
+ - 트랜잭션/쿼리 timeout (AdaptiveTimeoutPolicy.isTimeout) : QueryTimeoutException, SQLTimeoutException 도 일시적인 예외에 속하지만
+   같은 timeout 으로 다시 실행하면 같은 시간만큼 커넥션을 잡고 다시 실패할 가능성이 높음
+ */
+public class TransientFailureClassifier {
+
+    private static final String TRANSACTION_ROLLBACK_CLASS = "40";
+    private static final Set<String> LOCK_TIMEOUT_STATES = Set.of("HYT00", "55P03");
+
+    public boolean isTransient(Throwable ex) {
+        if (AdaptiveTimeoutPolicy.isTimeout(ex)) {
+            return false;
+        }
+        for (Throwable current = ex; current != null; current = next(current)) {
+            if (current instanceof TransientDataAccessException
+                    || current instanceof LockTimeoutException
+                    || current instanceof PessimisticLockException
+                    || current instanceof SQLTransientException) {
+                return true;
+            }
+            if (current instanceof SQLException sqlException && isTransientState(sqlException.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isTransientState(String sqlState) {
+        return sqlState != null
+                && (sqlState.startsWith(TRANSACTION_ROLLBACK_CLASS) || LOCK_TIMEOUT_STATES.contains(sqlState));
+    }
+
+    //SQLException 은 getNextException 으로도 원인이 연결됨 (배치 실행 실패 등)
+    private static Throwable next(Throwable current) {
+        Throwable cause = current.getCause();
+        if (cause == null && current instanceof SQLException sqlException) {
+            cause = sqlException.getNextException();
+        }
+        return cause != current ? cause : null;
+    }
+}
@@ -0,0 +1,46 @@
+package hello.springtx.timeout;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+
+import java.util.List;
+
+/**
+ * AdaptiveTimeoutConfig
+ - springtx.tx-timeout.enabled=true 인 경우에만 사용, 사용하지 않으면 timeout 을 지정하지 않은 트랜잭션은 스프링 기본값(timeout 없음)을 사용
+ - max-seconds : timeout 상한 (표본이 모이기 전에도 사용), min-seconds : timeout 하한
+ -> 하이버네이트는 남은 시간을 초 단위로 버림하고 0 초가 되면 SQL 실행을 거부하므로 min-seconds 는 2 이상으로 설정
+ - percentile, multiplier : timeout = 최근 window 건의 percentile 값 x multiplier
+ - min-samples : timeout 을 계산하기 시작하는 표본 수 (이후 min-samples 건마다 다시 계산)
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "springtx.tx-timeout.enabled", havingValue = "true")
+public class AdaptiveTimeoutConfig {
+
+    //BeanPostProcessor 는 다른 빈보다 먼저 만들어져야 하므로 static 으로 등록
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static AdaptiveTimeoutPostProcessor adaptiveTimeoutPostProcessor(
+            ObjectProvider<AdaptiveTimeoutPolicy> policy,
+            @Value("${springtx.tx-timeout.excludes:hello.springtx.export.}") List<String> excludes) {
+        return new AdaptiveTimeoutPostProcessor(policy, excludes);
+    }
+
+    @Bean
+    public AdaptiveTimeoutPolicy adaptiveTimeoutPolicy(
+            MeterRegistry registry,
+            @Value("${springtx.tx-timeout.min-seconds:2}") int minSeconds,
+            @Value("${springtx.tx-timeout.max-seconds:30}") int maxSeconds,
+            @Value("${springtx.tx-timeout.percentile:0.99}") double percentile,
+            @Value("${springtx.tx-timeout.multiplier:3}") double multiplier,
+            @Value("${springtx.tx-timeout.window:1000}") int window,
+            @Value("${springtx.tx-timeout.min-samples:100}") int minSamples) {
+        return new AdaptiveTimeoutPolicy(registry, minSeconds, maxSeconds, percentile, multiplier, window, minSamples);
+    }
+}
@@ -0,0 +1,182 @@
+package hello.springtx.timeout;
+
+import hello.springtx.monitor.TransactionListener;
+import hello.springtx.monitor.TransactionRecord;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.TransactionTimedOutException;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * AdaptiveTimeoutPolicy
+ - timeout 을 지정하지 않은 @Transactional 메서드마다 최근 실행 시간의 백분위수로 트랜잭션 timeout(초)을 정함
+ -> timeout = 최근 windowSize 건의 percentile 값 x multiplier (올림), minSeconds ~ maxSeconds 로 제한
+ - minSamples 건이 모이기 전에는 maxSeconds(상한) 사용 -> 처음부터 무제한으로 커넥션을 잡고 있지 않음
+ - 실행 시간은 물리 트랜잭션(신규 트랜잭션)의 시작부터 커밋/롤백 완료까지, timeout 으로 실패한 트랜잭션은 제외
+
+ * timeout 적용
+ - 트랜잭션 매니저가 트랜잭션 시작 시점에 timeout 을 읽어서 데드라인을 정함
+ - JPA : 하이버네이트가 남은 시간을 JDBC Statement.setQueryTimeout 으로 설정 (쿼리, flush 시점 insert/update 모두)
+ -> 느린 SQL 은 DB 가 취소하고, 데드라인이 지난 뒤에는 새 SQL 을 실행하지 않음
+ - 참여한 트랜잭션(REQUIRED 참여)은 바깥 물리 트랜잭션의 timeout 을 따름
+
+ * 지표
+ - transaction.timeouts : timeout 으로 실패한 트랜잭션 수
+ - transaction.timeout.assigned : 메서드별 현재 timeout (초)
+ */
+public class AdaptiveTimeoutPolicy implements TransactionListener {
+
+    //락 대기 타임아웃 SQLState (HYT00 : H2, 55P03 : PostgreSQL)
+    private static final Set<String> LOCK_TIMEOUT_STATES = Set.of("HYT00", "55P03");
+
+    private final MeterRegistry registry;
+    private final int minSeconds;
+    private final int maxSeconds;
+    private final double percentile;
+    private final double multiplier;
+    private final int windowSize;
+    private final int minSamples;
+
+    private final Map<String, LatencyWindow> windows = new ConcurrentHashMap<>();
+
+    public AdaptiveTimeoutPolicy(MeterRegistry registry, int minSeconds, int maxSeconds, double percentile,
+                                 double multiplier, int windowSize, int minSamples) {
+        this.registry = registry;
+        this.minSeconds = minSeconds;
+        this.maxSeconds = maxSeconds;
+        this.percentile = percentile;
+        this.multiplier = multiplier;
+        this.windowSize = windowSize;
+        this.minSamples = Math.min(minSamples, windowSize);
+    }
+
+    /**
+     * name : 트랜잭션 이름 ("클래스명.메서드명")
+     */
+    public int getTimeoutSeconds(String name) {
+        LatencyWindow window = windows.get(name);
+        return (window != null ? window.timeoutSeconds : maxSeconds);
+    }
+
+    public void recordLatency(String name, long nanos) {
+        windows.computeIfAbsent(name, this::createWindow).add(nanos);
+    }
+
+    @Override
+    public void afterCommit(TransactionRecord record, @Nullable Throwable commitFailure) {
+        complete(record, commitFailure);
+    }
+
+    @Override
+    public void afterRollback(TransactionRecord record, @Nullable Throwable rollbackFailure) {
+        complete(record, rollbackFailure);
+    }
+
+    private void complete(TransactionRecord record, @Nullable Throwable failure) {
+        if (!record.isNewTransaction()) {
+            return;
+        }
+        if (isTimeout(record.getCompletionCause()) || isTimeout(failure)) {
+            Counter.builder("transaction.timeouts")
+                    .description("timeout 으로 실패한 트랜잭션 수")
+                    .tag("name", record.getName())
+                    .register(registry)
+                    .increment();
+            return;
+        }
+        recordLatency(record.getName(), record.getBodyNanos() + record.getCompletionNanos());
+    }
+
+    private LatencyWindow createWindow(String name) {
+        LatencyWindow window = new LatencyWindow();
+        Gauge.builder("transaction.timeout.assigned", window, w -> w.timeoutSeconds)
+                .description("메서드별 현재 트랜잭션 timeout (초)")
+                .tag("name", name)
+                .register(registry);
+        return window;
+    }
+
+    int computeTimeoutSeconds(long percentileNanos) {
+        long seconds = (long) Math.ceil(percentileNanos * multiplier / 1_000_000_000d);
+        return (int) Math.max(minSeconds, Math.min(maxSeconds, seconds));
+    }
+
+    /**
+     * 예외 원인 중에 timeout 관련 예외가 있는지 확인
+     - TransactionTimedOutException : 데드라인이 지난 뒤 JDBC 커넥션/Statement 를 사용 (DataSourceTransactionManager)
+     - QueryTimeoutException, SQLTimeoutException, SQLState 57014 : DB 가 쿼리를 취소 (setQueryTimeout)
+     - 하이버네이트 TransactionException("transaction timeout expired") : 데드라인이 지난 뒤 SQL 실행
+     - 락 대기 타임아웃(HYT00 : H2, 55P03 : PostgreSQL)은 제외 -> H2 는 SQLTimeoutException 으로 보내지만 트랜잭션 timeout 이 아님
+     - TransientFailureClassifier 에서도 timeout 을 재시도 대상에서 빼기 위해 사용
+     */
+    public static boolean isTimeout(@Nullable Throwable ex) {
+        for (Throwable current = ex; current != null; current = current.getCause()) {
+            if (current instanceof TransactionTimedOutException
+                    || current instanceof QueryTimeoutException
+                    || current instanceof jakarta.persistence.QueryTimeoutException) {
+                return true;
+            }
+            if (current instanceof SQLTimeoutException sqlTimeout && !isLockTimeoutState(sqlTimeout.getSQLState())) {
+                return true;
+            }
+            if (current instanceof SQLException sqlException && "57014".equals(sqlException.getSQLState())) {
+                return true;
+            }
+            if (current instanceof org.hibernate.TransactionException
+                    && current.getMessage() != null && current.getMessage().contains("timeout expired")) {
+                return true;
+            }
+            if (current.getCause() == current) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isLockTimeoutState(@Nullable String sqlState) {
+        return sqlState != null && LOCK_TIMEOUT_STATES.contains(sqlState);
+    }
+
+    /**
+     * 최근 windowSize 건의 실행 시간 (원형 버퍼)
+     - minSamples 건마다 백분위수를 다시 계산하고, 그 사이에는 계산된 timeout 을 그대로 사용
+     */
+    private class LatencyWindow {
+
+        private final long[] samples = new long[windowSize];
+        private int next;
+        private int count;
+        private int sinceRecompute;
+
+        private volatile int timeoutSeconds = maxSeconds;
+
+        synchronized void add(long nanos) {
+            samples[next] = nanos;
+            next = (next + 1) % samples.length;
+            if (count < samples.length) {
+                count++;
+            }
+            sinceRecompute++;
+            if (count >= minSamples && sinceRecompute >= minSamples) {
+                sinceRecompute = 0;
+                timeoutSeconds = computeTimeoutSeconds(percentileNanos());
+            }
+        }
+
+        private long percentileNanos() {
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile * count) - 1;
+            return sorted[Math.max(0, Math.min(count - 1, index))];
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package hello.springtx.timeout;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.core.PriorityOrdered;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.interceptor.TransactionAttributeSource;
+
+import java.util.List;
+
+/**
+ * AdaptiveTimeoutPostProcessor
+ - TransactionAspectSupport 의 속성 소스를 AdaptiveTimeoutTransactionAttributeSource 로 감쌈
+
+ * 순서
+ - TransactionMonitoringPostProcessor(LOWEST_PRECEDENCE - 1), TransactionAttributePrecomputer(LOWEST_PRECEDENCE) 보다 먼저 감쌈
+ -> 완료 원인 기록, 사전 계산은 timeout 을 바꾼 속성을 감싸고, 롤백 규칙 캐시(초기화 전)는 그 안쪽에 위치
+ */
+public class AdaptiveTimeoutPostProcessor implements BeanPostProcessor, PriorityOrdered {
+
+    private final ObjectProvider<AdaptiveTimeoutPolicy> policy;
+    private final List<String> excludes;
+
+    public AdaptiveTimeoutPostProcessor(ObjectProvider<AdaptiveTimeoutPolicy> policy, List<String> excludes) {
+        this.policy = policy;
+        this.excludes = excludes;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof TransactionAspectSupport transactionAspect) {
+            TransactionAttributeSource source = transactionAspect.getTransactionAttributeSource();
+            if (source != null && !(source instanceof AdaptiveTimeoutTransactionAttributeSource)) {
+                transactionAspect.setTransactionAttributeSource(
+                        new AdaptiveTimeoutTransactionAttributeSource(source, policy, excludes));
+            }
+        }
+        return bean;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE - 2;
+    }
+}
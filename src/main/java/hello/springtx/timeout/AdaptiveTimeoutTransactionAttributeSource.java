@@ -0,0 +1,100 @@
+package hello.springtx.timeout;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.MethodClassKey;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.interceptor.DelegatingTransactionAttribute;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+import org.springframework.transaction.interceptor.TransactionAttributeSource;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * AdaptiveTimeoutTransactionAttributeSource
+ - timeout 을 지정하지 않은 트랜잭션 속성의 getTimeout() 을 AdaptiveTimeoutPolicy 가 정한 값으로 바꿈
+ - 속성 객체는 메서드마다 한 번 만들고, getTimeout() 을 호출할 때마다 정책의 현재 값을 읽음
+ -> TransactionAttributePrecomputer 가 속성 객체를 고정해도 timeout 은 계속 갱신됨
+
+ * 적용 대상
+ - @Transactional(timeout = ...) 으로 직접 지정한 메서드는 그대로 사용
+ - excludes 로 시작하는 메서드(기본 TableExporter, 대용량 내보내기)는 그대로 사용 (timeout 없음)
+ */
+public class AdaptiveTimeoutTransactionAttributeSource implements TransactionAttributeSource {
+
+    private final TransactionAttributeSource delegate;
+    private final ObjectProvider<AdaptiveTimeoutPolicy> policyProvider;
+    private final List<String> excludes;
+    private final Map<MethodClassKey, TransactionAttribute> attributes = new ConcurrentHashMap<>();
+
+    private volatile AdaptiveTimeoutPolicy policy;
+
+    public AdaptiveTimeoutTransactionAttributeSource(TransactionAttributeSource delegate,
+                                                     ObjectProvider<AdaptiveTimeoutPolicy> policyProvider,
+                                                     List<String> excludes) {
+        this.delegate = delegate;
+        this.policyProvider = policyProvider;
+        this.excludes = excludes;
+    }
+
+    @Override
+    public boolean isCandidateClass(Class<?> targetClass) {
+        return delegate.isCandidateClass(targetClass);
+    }
+
+    @Override
+    @Nullable
+    public TransactionAttribute getTransactionAttribute(Method method, @Nullable Class<?> targetClass) {
+        TransactionAttribute attribute = delegate.getTransactionAttribute(method, targetClass);
+        if (attribute == null || attribute.getTimeout() != TransactionDefinition.TIMEOUT_DEFAULT) {
+            return attribute;
+        }
+        //트랜잭션 이름(TransactionAspectSupport 의 joinpoint 이름)과 같은 "클래스명.메서드명"
+        String name = ClassUtils.getQualifiedMethodName(method, targetClass);
+        if (isExcluded(name)) {
+            return attribute;
+        }
+        return attributes.computeIfAbsent(new MethodClassKey(method, targetClass),
+                key -> new AdaptiveTimeoutTransactionAttribute(attribute, name));
+    }
+
+    private boolean isExcluded(String name) {
+        for (String exclude : excludes) {
+            if (!exclude.isBlank() && name.startsWith(exclude.trim())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //정책 빈은 후처리기보다 늦게 만들어지므로 첫 트랜잭션에서 조회
+    @Nullable
+    private AdaptiveTimeoutPolicy policy() {
+        AdaptiveTimeoutPolicy current = policy;
+        if (current == null) {
+            current = policyProvider.getIfAvailable();
+            policy = current;
+        }
+        return current;
+    }
+
+    class AdaptiveTimeoutTransactionAttribute extends DelegatingTransactionAttribute {
+
+        private final String name;
+
+        AdaptiveTimeoutTransactionAttribute(TransactionAttribute target, String name) {
+            super(target);
+            this.name = name;
+        }
+
+        @Override
+        public int getTimeout() {
+            AdaptiveTimeoutPolicy current = policy();
+            return (current != null ? current.getTimeoutSeconds(name) : TransactionDefinition.TIMEOUT_DEFAULT);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package hello.springtx.apply;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 트랜잭션 AOP - AspectJ 위빙
+ - ./gradlew test -PaspectjWeaving 으로 실행한 경우에만 동작 (springtx.transaction.mode=aspectj)
+ - 프록시 대신 클래스 자체에 트랜잭션 코드가 위빙되므로 InternalCallV1Test 의 내부 호출 문제가 없음
+
+ * 호출 순서
+ - external() -> 실제 external() -> 위빙된 트랜잭션 시작 -> 실제 internal() -> 커밋
+ */
+@Slf4j
+@SpringBootTest
+@EnabledIfSystemProperty(named = "springtx.transaction.mode", matches = "aspectj")
+class AspectJTransactionTest {
+
+    @Autowired
+    CallService callService;
+
+    @Test
+    void notProxy() {
+        log.info("callService class = {}", callService.getClass());
+        assertThat(AopUtils.isAopProxy(callService)).isFalse();
+    }
+
+    @Test
+    void externalCall() {
+        assertThat(callService.external()).isTrue();
+    }
+
+    //스프링 빈이 아닌 객체도 위빙된 클래스이므로 트랜잭션이 적용됨
+    @Test
+    void newInstance() {
+        assertThat(new CallService().external()).isTrue();
+    }
+
+    @TestConfiguration
+    static class AspectJCallConfig {
+        @Bean
+        CallService callService() {
+            return new CallService();
+        }
+    }
+
+    @Slf4j
+    static class CallService {
+
+        public boolean external() {
+            log.info("call external");
+            boolean txActive = TransactionSynchronizationManager.isActualTransactionActive();
+            log.info("tx active = {}", txActive);
+            return internal();
+        }
+
+        @Transactional
+        public boolean internal() {
+            log.info("call internal");
+            boolean txActive = TransactionSynchronizationManager.isActualTransactionActive();
+            log.info("tx active = {}", txActive);
+            return txActive;
+        }
+    }
+}
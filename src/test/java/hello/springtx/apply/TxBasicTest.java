@@ -2,6 +2,7 @@ package hello.springtx.apply;
 
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIfSystemProperty;
 import org.springframework.aop.support.AopUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -38,7 +39,9 @@ class TxBasicTest {
     @Autowired
     BasicService basicService;
 
+    //AspectJ 위빙 모드(-PaspectjWeaving)에서는 프록시를 만들지 않음 (AspectJTransactionTest)
     @Test
+    @DisabledIfSystemProperty(named = "springtx.transaction.mode", matches = "aspectj")
     void proxyCheck() {
         log.info("aop class = {}", basicService.getClass());
         assertThat(AopUtils.isAopProxy(basicService)).isTrue();
@@ -0,0 +1,126 @@
+package hello.springtx.attribute;
+
+import hello.springtx.propagation.LogRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+import org.springframework.transaction.interceptor.TransactionAttributeSource;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 트랜잭션 속성 사전 계산
+ - 시작 시점에 고정한 속성이 스프링이 호출 시점에 계산하는 속성과 같은지 확인
+ - 우선순위(클래스 > 메서드), rollbackFor/noRollbackFor 규칙 포함
+ */
+@SpringBootTest
+class PrecomputedTransactionAttributeTest {
+
+    @Autowired
+    ApplicationContext context;
+
+    @Test
+    void installed() {
+        Map<String, TransactionAspectSupport> aspects = context.getBeansOfType(TransactionAspectSupport.class);
+        assertThat(aspects).isNotEmpty();
+        assertThat(aspects.values())
+                .extracting(TransactionAspectSupport::getTransactionAttributeSource)
+                .allMatch(source -> source instanceof PrecomputedTransactionAttributeSource);
+    }
+
+    @Test
+    void sameAsSpring() throws NoSuchMethodException {
+        TransactionAttributeSource precomputed = source();
+        AnnotationTransactionAttributeSource spring = new AnnotationTransactionAttributeSource(false);
+
+        for (String name : new String[]{"classLevel", "methodLevel", "rollbackFor", "noRollbackFor"}) {
+            Method method = RuleService.class.getMethod(name);
+            TransactionAttribute expected = spring.getTransactionAttribute(method, RuleService.class);
+            TransactionAttribute actual = precomputed.getTransactionAttribute(method, RuleService.class);
+
+            assertThat(actual.isReadOnly()).isEqualTo(expected.isReadOnly());
+            assertThat(actual.getPropagationBehavior()).isEqualTo(expected.getPropagationBehavior());
+            assertThat(actual.rollbackOn(new MyException())).isEqualTo(expected.rollbackOn(new MyException()));
+            assertThat(actual.rollbackOn(new IllegalStateException())).isEqualTo(expected.rollbackOn(new IllegalStateException()));
+        }
+
+        Method nonTx = RuleService.class.getMethod("toString");
+        assertThat(precomputed.getTransactionAttribute(nonTx, Object.class)).isNull();
+    }
+
+    //고정된 테이블에서 꺼내므로 호출할 때마다 같은 속성 객체를 반환
+    @Test
+    void frozen() throws NoSuchMethodException {
+        TransactionAttributeSource precomputed = source();
+        Method find = LogRepository.class.getMethod("find", String.class);
+
+        TransactionAttribute first = precomputed.getTransactionAttribute(find, LogRepository.class);
+        TransactionAttribute second = precomputed.getTransactionAttribute(find, LogRepository.class);
+
+        assertThat(first).isSameAs(second);
+        assertThat(first.isReadOnly()).isTrue();
+    }
+
+    @Test
+    void rules() throws NoSuchMethodException {
+        TransactionAttributeSource precomputed = source();
+
+        TransactionAttribute classLevel = precomputed.getTransactionAttribute(RuleService.class.getMethod("classLevel"), RuleService.class);
+        TransactionAttribute methodLevel = precomputed.getTransactionAttribute(RuleService.class.getMethod("methodLevel"), RuleService.class);
+        TransactionAttribute rollbackFor = precomputed.getTransactionAttribute(RuleService.class.getMethod("rollbackFor"), RuleService.class);
+        TransactionAttribute noRollbackFor = precomputed.getTransactionAttribute(RuleService.class.getMethod("noRollbackFor"), RuleService.class);
+
+        assertThat(classLevel.isReadOnly()).isTrue();
+        assertThat(methodLevel.isReadOnly()).isFalse();
+        assertThat(methodLevel.getPropagationBehavior()).isEqualTo(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        assertThat(rollbackFor.rollbackOn(new MyException())).isTrue();
+        assertThat(noRollbackFor.rollbackOn(new IllegalStateException())).isFalse();
+    }
+
+    private TransactionAttributeSource source() {
+        return context.getBeansOfType(TransactionAspectSupport.class).values().iterator().next()
+                .getTransactionAttributeSource();
+    }
+
+    @TestConfiguration
+    static class PrecomputedConfig {
+        @Bean
+        RuleService ruleService() {
+            return new RuleService();
+        }
+    }
+
+    static class MyException extends Exception {
+    }
+
+    @Transactional(readOnly = true)
+    static class RuleService {
+
+        public void classLevel() {
+        }
+
+        @Transactional(propagation = Propagation.REQUIRES_NEW)
+        public void methodLevel() {
+        }
+
+        @Transactional(rollbackFor = MyException.class)
+        public void rollbackFor() {
+        }
+
+        @Transactional(noRollbackFor = IllegalStateException.class)
+        public void noRollbackFor() {
+        }
+    }
+}
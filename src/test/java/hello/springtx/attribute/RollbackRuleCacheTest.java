@@ -0,0 +1,111 @@
+package hello.springtx.attribute;
+
+import hello.springtx.order.NotEnoughMoneyException;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.interceptor.NoRollbackRuleAttribute;
+import org.springframework.transaction.interceptor.RollbackRuleAttribute;
+import org.springframework.transaction.interceptor.RuleBasedTransactionAttribute;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * rollbackFor/noRollbackFor 결정 캐시
+ - 캐시한 결정이 RuleBasedTransactionAttribute 의 결정과 같은지, 같은 예외 클래스는 규칙을 다시 계산하지 않는지 확인
+ */
+class RollbackRuleCacheTest {
+
+    @Test
+    void sameDecision() throws NoSuchMethodException {
+        RuleBasedTransactionAttribute rules = rules(new AtomicInteger());
+        TransactionAttribute cached = cached(rules);
+
+        for (Throwable ex : List.of(new MyException(), new SubMyException(), new NotEnoughMoneyException("잔고 부족"),
+                new IllegalStateException(), new IOException(), new Error())) {
+            assertThat(cached.rollbackOn(ex)).as(ex.getClass().getSimpleName()).isEqualTo(rules.rollbackOn(ex));
+        }
+    }
+
+    @Test
+    void cachedByExceptionClass() throws NoSuchMethodException {
+        AtomicInteger matches = new AtomicInteger();
+        TransactionAttribute cached = cached(rules(matches));
+
+        assertThat(cached.rollbackOn(new NotEnoughMoneyException("잔고 부족"))).isFalse();
+        int firstMatches = matches.get();
+        for (int i = 0; i < 100; i++) {
+            assertThat(cached.rollbackOn(new NotEnoughMoneyException("잔고 부족"))).isFalse();
+        }
+
+        //두 번째 발생부터는 규칙을 계산하지 않음
+        assertThat(firstMatches).isPositive();
+        assertThat(matches.get()).isEqualTo(firstMatches);
+    }
+
+    //규칙이 없는 속성은 감싸지 않음
+    @Test
+    void noRules() throws NoSuchMethodException {
+        RuleBasedTransactionAttribute plain = new RuleBasedTransactionAttribute();
+        assertThat(cached(plain)).isSameAs(plain);
+    }
+
+    private static TransactionAttribute cached(TransactionAttribute attribute) throws NoSuchMethodException {
+        Method method = RollbackRuleCacheTest.class.getDeclaredMethod("cached", TransactionAttribute.class);
+        RollbackRuleCachingTransactionAttributeSource source =
+                new RollbackRuleCachingTransactionAttributeSource((m, targetClass) -> attribute);
+        return source.getTransactionAttribute(method, RollbackRuleCacheTest.class);
+    }
+
+    //규칙 비교(getDepth) 횟수를 센다
+    private static RuleBasedTransactionAttribute rules(AtomicInteger matches) {
+        RuleBasedTransactionAttribute attribute = new RuleBasedTransactionAttribute();
+        attribute.setRollbackRules(List.of(
+                new CountingRule(MyException.class, matches),
+                new CountingNoRollbackRule(NotEnoughMoneyException.class, matches),
+                new CountingNoRollbackRule(IllegalStateException.class, matches)));
+        return attribute;
+    }
+
+    static class CountingRule extends RollbackRuleAttribute {
+
+        private final AtomicInteger matches;
+
+        CountingRule(Class<?> exceptionType, AtomicInteger matches) {
+            super(exceptionType);
+            this.matches = matches;
+        }
+
+        @Override
+        public int getDepth(Throwable exception) {
+            matches.incrementAndGet();
+            return super.getDepth(exception);
+        }
+    }
+
+    static class CountingNoRollbackRule extends NoRollbackRuleAttribute {
+
+        private final AtomicInteger matches;
+
+        CountingNoRollbackRule(Class<?> exceptionType, AtomicInteger matches) {
+            super(exceptionType);
+            this.matches = matches;
+        }
+
+        @Override
+        public int getDepth(Throwable exception) {
+            matches.incrementAndGet();
+            return super.getDepth(exception);
+        }
+    }
+
+    static class MyException extends Exception {
+    }
+
+    static class SubMyException extends MyException {
+    }
+}
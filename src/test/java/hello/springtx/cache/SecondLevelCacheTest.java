@@ -0,0 +1,171 @@
+package hello.springtx.cache;
+
+import hello.springtx.order.NotEnoughMoneyException;
+import hello.springtx.order.Order;
+import hello.springtx.order.OrderRepository;
+import hello.springtx.order.OrderService;
+import hello.springtx.propagation.MemberRepository;
+import hello.springtx.propagation.MemberService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 하이버네이트 2차 캐시
+ - 롤백된 주문은 캐시에 반영되지 않고, 롤백된 수정은 캐시된 값을 바꾸지 않아야 함
+ - username 조회는 쿼리 캐시 + member 영역에서 가져옴
+ - 하이버네이트 통계(hibernate.generate_statistics)로 캐시 적중 여부를 확인
+ */
+@SpringBootTest(properties = {
+        "springtx.second-level-cache.enabled=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureObservability
+class SecondLevelCacheTest {
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    OrderRepository orderRepository;
+
+    @Autowired
+    MemberService memberService;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Autowired
+    PlatformTransactionManager txManager;
+
+    @Autowired
+    MeterRegistry registry;
+
+    SessionFactory sessionFactory;
+
+    @BeforeEach
+    void init() {
+        sessionFactory = emf.unwrap(SessionFactory.class);
+        sessionFactory.getStatistics().clear();
+    }
+
+    /**
+     * 시스템 예외로 롤백된 주문은 DB, 캐시 모두 없음
+     */
+    @Test
+    void orderRollback() {
+        //given
+        Order order = new Order();
+        order.setUsername("예외");
+
+        //when
+        assertThatThrownBy(() -> orderService.order(order))
+                .isInstanceOf(RuntimeException.class);
+
+        //then
+        assertThat(order.getId()).isNotNull();
+        assertThat(sessionFactory.getCache().containsEntity(Order.class, order.getId())).isFalse();
+        assertThat(orderRepository.findById(order.getId())).isEmpty();
+    }
+
+    /**
+     * 잔고 부족(비즈니스 예외)은 커밋되므로 대기 상태로 캐시됨
+     */
+    @Test
+    void bizExceptionCached() {
+        //given
+        Order order = new Order();
+        order.setUsername("잔고부족");
+
+        //when
+        assertThatThrownBy(() -> orderService.order(order))
+                .isInstanceOf(NotEnoughMoneyException.class);
+
+        //then
+        assertThat(sessionFactory.getCache().containsEntity(Order.class, order.getId())).isTrue();
+        assertThat(orderRepository.findById(order.getId()).get().getPayStatus()).isEqualTo("대기");
+        assertThat(sessionFactory.getStatistics().getSecondLevelCacheHitCount()).isGreaterThanOrEqualTo(1);
+    }
+
+    /**
+     * 캐시된 주문을 수정하다가 롤백하면 이후 조회는 수정 전 값
+     */
+    @Test
+    void updateRollback() {
+        //given
+        Order order = new Order();
+        order.setUsername("정상");
+        order.setPayStatus("대기");
+        Long orderId = orderRepository.save(order).getId();
+        orderRepository.findById(orderId);
+
+        //when
+        TransactionTemplate template = new TransactionTemplate(txManager);
+        template.executeWithoutResult(status -> {
+            Order findOrder = orderRepository.findById(orderId).get();
+            findOrder.setPayStatus("완료");
+            orderRepository.flush();
+            status.setRollbackOnly();
+        });
+
+        //then
+        assertThat(orderRepository.findById(orderId).get().getPayStatus()).isEqualTo("대기");
+    }
+
+    /**
+     * 같은 username 을 반복 조회하면 두 번째부터 쿼리 캐시 적중
+     */
+    @Test
+    void usernameQueryCache() {
+        //given
+        String username = "usernameQueryCache";
+        memberService.joinV1(username);
+
+        //when
+        memberRepository.find(username);
+        memberRepository.find(username);
+
+        //then
+        Statistics statistics = sessionFactory.getStatistics();
+        assertThat(statistics.getQueryCacheHitCount()).isGreaterThanOrEqualTo(1);
+        assertThat(memberRepository.find(username)).isPresent();
+    }
+
+    /**
+     * 회원이 추가되면 쿼리 캐시가 무효화되어 새로 저장한 회원도 조회됨
+     */
+    @Test
+    void queryCacheInvalidated() {
+        //given
+        String username = "queryCacheInvalidated";
+        assertThat(memberRepository.find(username)).isEmpty();
+
+        //when
+        memberService.joinV1(username);
+
+        //then
+        assertThat(memberRepository.find(username)).isPresent();
+    }
+
+    @Test
+    void metrics() {
+        assertThat(registry.get("cache.gets").tag("cache", SecondLevelCacheConfig.MEMBER_REGION).tag("result", "hit")
+                .functionCounter()).isNotNull();
+        assertThat(registry.get("cache.evictions").tag("cache", SecondLevelCacheConfig.ORDER_REGION)
+                .functionCounter()).isNotNull();
+    }
+}
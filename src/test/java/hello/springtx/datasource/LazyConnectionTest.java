@@ -0,0 +1,133 @@
+package hello.springtx.datasource;
+
+import hello.springtx.propagation.MemberService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 커넥션 지연 획득
+ - SQL 을 실행하지 않은 트랜잭션은 커넥션 풀에서 커넥션을 가져오지 않음 (커밋, 롤백 모두)
+ - SQL 을 실행한 트랜잭션은 기존과 같이 커넥션을 가져와서 커밋
+ - 카운터 증가량으로 확인
+ */
+@SpringBootTest(properties = "springtx.datasource.lazy-connection.enabled=true")
+@AutoConfigureObservability
+class LazyConnectionTest {
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    NoSqlService noSqlService;
+
+    @Autowired
+    MemberService memberService;
+
+    @Autowired
+    MeterRegistry registry;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Test
+    void wrapped() {
+        assertThat(dataSource).isInstanceOf(LazyConnectionDataSource.class);
+    }
+
+    @Test
+    void untouched_commit() {
+        LazyConnectionDataSource lazy = (LazyConnectionDataSource) dataSource;
+        long acquired = lazy.getAcquiredCount();
+        long avoided = lazy.getAvoidedCount();
+
+        //when
+        boolean txActive = noSqlService.tx();
+
+        //then
+        assertThat(txActive).isTrue();
+        assertThat(lazy.getAcquiredCount()).isEqualTo(acquired);
+        assertThat(lazy.getAvoidedCount()).isGreaterThan(avoided);
+    }
+
+    /**
+     * 진행 중인 트랜잭션은 끝날 때(커넥션 close) 세므로 avoided 가 줄어들지 않음
+     */
+    @Test
+    void avoidedCountedOnClose() {
+        LazyConnectionDataSource lazy = (LazyConnectionDataSource) dataSource;
+        long avoided = lazy.getAvoidedCount();
+
+        transactionTemplate.executeWithoutResult(status ->
+                assertThat(lazy.getAvoidedCount()).isEqualTo(avoided));
+
+        assertThat(lazy.getAvoidedCount()).isGreaterThan(avoided);
+    }
+
+    @Test
+    void untouched_rollback() {
+        LazyConnectionDataSource lazy = (LazyConnectionDataSource) dataSource;
+        long acquired = lazy.getAcquiredCount();
+
+        //when
+        assertThatThrownBy(() -> noSqlService.fail())
+                .isInstanceOf(IllegalStateException.class);
+
+        //then
+        assertThat(lazy.getAcquiredCount()).isEqualTo(acquired);
+    }
+
+    @Test
+    void touched() {
+        LazyConnectionDataSource lazy = (LazyConnectionDataSource) dataSource;
+        long acquired = lazy.getAcquiredCount();
+
+        //when
+        memberService.joinV1("lazy_touched");
+
+        //then
+        assertThat(lazy.getAcquiredCount()).isGreaterThan(acquired);
+    }
+
+    @Test
+    void metrics() {
+        noSqlService.tx();
+
+        assertThat(registry.get("transaction.connection.checkouts")
+                .tag("outcome", "avoided")
+                .functionCounter().count()).isGreaterThanOrEqualTo(1);
+    }
+
+    @TestConfiguration
+    static class NoSqlConfig {
+        @Bean
+        NoSqlService noSqlService() {
+            return new NoSqlService();
+        }
+    }
+
+    static class NoSqlService {
+
+        @Transactional
+        public boolean tx() {
+            return TransactionSynchronizationManager.isActualTransactionActive();
+        }
+
+        @Transactional
+        public void fail() {
+            throw new IllegalStateException("SQL 실행 전 예외");
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package hello.springtx.datasource;
+
+import hello.springtx.datasource.ReadOnlyRoutingDataSource.Route;
+import hello.springtx.propagation.MemberRepository;
+import hello.springtx.propagation.MemberService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 읽기 전용 트랜잭션 라우팅
+ - primary, replica 두 커넥션 풀이 같은 H2 메모리 DB 를 바라보도록 설정 (복제 지연이 없는 replica)
+ - 풀 이름으로 라우팅 결과를 확인하는 대신 ReadOnlyRoutingDataSource 의 라우팅 횟수 증가량으로 확인
+ */
+@SpringBootTest(properties = {
+        "springtx.datasource.routing.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:routing;DB_CLOSE_DELAY=-1",
+        "springtx.datasource.replica.url=jdbc:h2:mem:routing;DB_CLOSE_DELAY=-1"
+})
+class ReadOnlyRoutingTest {
+
+    @Autowired
+    MemberService memberService;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    ReadOnlyRoutingDataSource routingDataSource;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    PlatformTransactionManager txManager;
+
+    @Test
+    void lazyProxy() {
+        assertThat(dataSource).isInstanceOf(LazyConnectionDataSourceProxy.class);
+    }
+
+    /**
+     * 쓰기 트랜잭션(joinV1)은 primary, readOnly 트랜잭션(find)은 replica
+     */
+    @Test
+    void readOnly_replica() {
+        //given
+        String username = "readOnly_replica";
+        long primary = routingDataSource.getRoutedCount(Route.PRIMARY);
+
+        //when
+        memberService.joinV1(username);
+
+        //then
+        assertThat(routingDataSource.getRoutedCount(Route.PRIMARY)).isGreaterThan(primary);
+
+        //when
+        long replica = routingDataSource.getRoutedCount(Route.REPLICA);
+        assertThat(memberRepository.find(username)).isPresent();
+
+        //then
+        assertThat(routingDataSource.getRoutedCount(Route.REPLICA)).isGreaterThan(replica);
+    }
+
+    /**
+     * readOnly 메서드가 쓰기 트랜잭션에 참여하면 primary 에서 조회
+     - 같은 트랜잭션에서 방금 저장한 데이터를 읽을 수 있음
+     */
+    @Test
+    void readOnly_participating_primary() {
+        //given
+        String username = "readOnly_participating_primary";
+        long replica = routingDataSource.getRoutedCount(Route.REPLICA);
+        TransactionTemplate template = new TransactionTemplate(txManager);
+
+        //when
+        boolean found = Boolean.TRUE.equals(template.execute(status -> {
+            memberService.joinV1(username);
+            return memberRepository.find(username).isPresent();
+        }));
+
+        //then
+        assertThat(found).isTrue();
+        assertThat(routingDataSource.getRoutedCount(Route.REPLICA)).isEqualTo(replica);
+    }
+}
@@ -0,0 +1,10 @@
+package hello.springtx.execution;
+
+/**
+ * ExecutionMode
+ - PLATFORM : 고정 크기 플랫폼 스레드 풀
+ - VIRTUAL : 작업마다 가상 스레드 생성 (Java 21 이상)
+ */
+public enum ExecutionMode {
+    PLATFORM, VIRTUAL
+}
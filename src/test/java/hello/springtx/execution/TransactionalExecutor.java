@@ -0,0 +1,100 @@
+package hello.springtx.execution;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TransactionalExecutor
+ - 서비스, 리포지토리 호출을 플랫폼 스레드 또는 가상 스레드에서 실행하는 실행기
+ - 동시에 실행되는 작업 수를 커넥션 풀 크기에 맞춘 세마포어로 제한
+
+ * 세마포어가 필요한 이유
+ - 가상 스레드는 수천 개를 동시에 만들 수 있지만 커넥션 풀은 그만큼 크지 않음
+ - joinV1 처럼 REQUIRES_NEW 가 있는 작업은 커넥션을 2개 사용하므로, 풀 크기 / 2 보다 많이 동시에 실행되면
+   모두 첫 번째 커넥션을 잡은 채로 두 번째 커넥션을 기다리는 상태(풀 고갈)가 될 수 있음
+ - 세마포어 대기는 가상 스레드를 캐리어 스레드에서 내려놓지만(unmount), JDBC 드라이버 내부의 synchronized 는
+   캐리어 스레드를 고정(pinning)시킬 수 있으므로 커넥션을 기다리기 전에 세마포어에서 먼저 대기시킴
+
+ * 사용 범위
+ - 부하 테스트용 유틸리티 (VirtualThreadLoadTest 에서 모드별로 직접 생성), 애플리케이션 빈으로 등록하지 않음
+ -> 서비스(MemberService, OrderService)는 호출한 스레드에서 그대로 실행됨
+
+ * 트랜잭션 동기화
+ - TransactionSynchronizationManager 는 ThreadLocal 기반이므로 작업마다 새 가상 스레드에서 독립적으로 동작
+ - 트랜잭션은 작업(Callable) 안에서 시작하고 끝나야 함 -> 호출한 스레드의 트랜잭션은 전파되지 않음
+ */
+@Slf4j
+public class TransactionalExecutor implements AutoCloseable {
+
+    private final ExecutionMode mode;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final int maxConcurrentTasks;
+
+    public TransactionalExecutor(ExecutionMode mode, int maxConcurrentTasks, int platformThreads) {
+        this.mode = mode;
+        this.maxConcurrentTasks = maxConcurrentTasks;
+        this.permits = new Semaphore(maxConcurrentTasks, true);
+        this.executor = (mode == ExecutionMode.VIRTUAL
+                ? newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(platformThreads));
+        log.info("TransactionalExecutor mode={}, maxConcurrentTasks={}", mode, maxConcurrentTasks);
+    }
+
+    public <T> Future<T> submit(Callable<T> task) {
+        return executor.submit(() -> {
+            permits.acquire();
+            try {
+                return task.call();
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    public ExecutionMode getMode() {
+        return mode;
+    }
+
+    public int getMaxConcurrentTasks() {
+        return maxConcurrentTasks;
+    }
+
+    /**
+     * 커넥션 허용량(세마포어)을 기다리는 작업 수
+     */
+    public int getQueueLength() {
+        return permits.getQueueLength();
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 기본 빌드는 Java 17 이므로 Executors.newVirtualThreadPerTaskExecutor() 를 리플렉션으로 호출
+     */
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("가상 스레드는 Java 21 이상에서 사용할 수 있습니다. (./gradlew -PvirtualThreads)", e);
+        }
+    }
+
+    static boolean isVirtualThreadSupported() {
+        return Runtime.version().feature() >= 21;
+    }
+}
@@ -0,0 +1,126 @@
+package hello.springtx.execution;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import hello.springtx.propagation.MemberRepository;
+import hello.springtx.propagation.MemberService;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * 플랫폼 스레드 vs 가상 스레드
+ - joinV1 (REQUIRED + REQUIRES_NEW, 커넥션 2개 사용) 을 동시에 많이 실행해서 소요 시간을 비교
+ - 세마포어가 동시 실행 수를 풀 크기 / 4 로 제한하므로 커넥션 획득 타임아웃 없이 모두 성공해야 함
+ - 두 모드 모두 동시에 실행된 작업 수, 사용 중인 커넥션 수의 최댓값이 세마포어 제한을 넘지 않아야 함
+ -> 플랫폼 스레드(50개)와 가상 스레드(작업마다 1개) 모두 세마포어 제한보다 많은 스레드가 동시에 작업을 시작함
+ -> 커넥션 제한(작업 수 x 2)이 풀 크기의 절반이므로, 세마포어가 없으면 풀 크기까지 커넥션을 사용해서 실패함
+ - 사용 중인 커넥션 수는 작업이 실행되는 동안 별도 스레드가 계속 확인 (트랜잭션 안에서 커넥션을 잡고 있는 순간을 포함)
+ - 가상 스레드 테스트는 Java 21 에서만 실행 (./gradlew test -PvirtualThreads)
+ */
+@Slf4j
+@SpringBootTest
+class VirtualThreadLoadTest {
+
+    static final int TASKS = 500;
+
+    @Autowired
+    MemberService memberService;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Test
+    void platformThreads() throws Exception {
+        assertBounded(runLoad(ExecutionMode.PLATFORM, "platform_"));
+    }
+
+    @Test
+    void virtualThreads() throws Exception {
+        assumeTrue(TransactionalExecutor.isVirtualThreadSupported(), "Java 21 이상에서만 실행");
+        assertBounded(runLoad(ExecutionMode.VIRTUAL, "virtual_"));
+    }
+
+    private void assertBounded(LoadResult result) {
+        assertThat(result.getPeakTasks()).isBetween(1, result.getMaxConcurrentTasks());
+        //작업 하나가 커넥션을 최대 2개 사용 (joinV1 의 REQUIRES_NEW)
+        assertThat(result.getPeakActiveConnections()).isBetween(1, result.getMaxConcurrentTasks() * 2);
+    }
+
+    private LoadResult runLoad(ExecutionMode mode, String prefix) throws Exception {
+        HikariDataSource hikari = DataSourceUnwrapper.unwrap(dataSource, HikariDataSource.class);
+        int maxConcurrentTasks = Math.max(1, hikari.getMaximumPoolSize() / 4);
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peakTasks = new AtomicInteger();
+        AtomicInteger peakActiveConnections = new AtomicInteger();
+        AtomicBoolean loading = new AtomicBoolean(true);
+
+        Thread sampler = new Thread(() -> {
+            while (loading.get()) {
+                peakActiveConnections.accumulateAndGet(pool.getActiveConnections(), Math::max);
+                LockSupport.parkNanos(50_000);
+            }
+        }, "active-connection-sampler");
+        sampler.start();
+
+        long start = System.nanoTime();
+        try (TransactionalExecutor executor = new TransactionalExecutor(mode, maxConcurrentTasks, 50)) {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < TASKS; i++) {
+                String username = prefix + i;
+                results.add(executor.submit(() -> {
+                    peakTasks.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        memberService.joinV1(username);
+                    } finally {
+                        running.decrementAndGet();
+                    }
+                    //작업이 끝나면 스레드에 트랜잭션 동기화 정보가 남아 있지 않아야 함
+                    return TransactionSynchronizationManager.isSynchronizationActive();
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertThat(result.get()).isFalse();
+            }
+        } finally {
+            loading.set(false);
+            sampler.join();
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        log.info("mode={}, tasks={}, elapsed={}ms, throughput={} ops/s, peakTasks={}, peakActiveConnections={}",
+                mode, TASKS, elapsedMillis, TASKS * 1000L / Math.max(1, elapsedMillis),
+                peakTasks.get(), peakActiveConnections.get());
+
+        assertThat(memberRepository.find(prefix + 0)).isPresent();
+        assertThat(memberRepository.find(prefix + (TASKS - 1))).isPresent();
+        return new LoadResult(maxConcurrentTasks, peakTasks.get(), peakActiveConnections.get());
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    static class LoadResult {
+        private final int maxConcurrentTasks;
+        private final int peakTasks;
+        private final int peakActiveConnections;
+    }
+}
@@ -0,0 +1,44 @@
+package hello.springtx.export;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * export 요청 파라미터
+ - format 은 대소문자 구분 없이 받고, 알 수 없는 값이면 500 이 아닌 400 응답
+ - StreamingResponseBody 는 비동기로 응답을 쓰므로 asyncDispatch 로 결과를 확인
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ExportControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Test
+    void format_caseInsensitive() throws Exception {
+        MvcResult result = mockMvc.perform(get("/export/members").param("format", "Csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"));
+    }
+
+    @Test
+    void format_unknown() throws Exception {
+        mockMvc.perform(get("/export/logs").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,81 @@
+package hello.springtx.export;
+
+import hello.springtx.propagation.Log;
+import hello.springtx.propagation.LogRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.IllegalTransactionStateException;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 대량 export
+ - batch_size(50) 보다 많은 건수를 내보내서 중간에 영속성 컨텍스트 clear 가 일어나는 경우를 확인
+ */
+@SpringBootTest
+class TableExporterTest {
+
+    @Autowired
+    TableExporter exporter;
+
+    @Autowired
+    LogRepository logRepository;
+
+    @Test
+    void exportLogs_ndjson() throws IOException {
+        //given
+        List<Log> logs = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            logs.add(new Log("exportLogs_ndjson_" + i));
+        }
+        logs.add(new Log("exportLogs_ndjson_\"quoted\""));
+        logRepository.saveAll(logs);
+
+        //when
+        StringWriter writer = new StringWriter();
+        long count = exporter.exportLogs(writer, ExportFormat.NDJSON);
+
+        //then
+        List<String> lines = writer.toString().lines().toList();
+        assertThat(count).isEqualTo(lines.size()).isGreaterThanOrEqualTo(121);
+        assertThat(lines).contains(
+                "{\"id\":" + logs.get(0).getId() + ",\"message\":\"exportLogs_ndjson_0\"}",
+                "{\"id\":" + logs.get(120).getId() + ",\"message\":\"exportLogs_ndjson_\\\"quoted\\\"\"}");
+    }
+
+    @Test
+    void exportLogs_csv() throws IOException {
+        //given
+        Log plain = new Log("exportLogs_csv");
+        Log comma = new Log("exportLogs_csv,\"comma\"");
+        logRepository.saveAll(List.of(plain, comma));
+
+        //when
+        StringWriter writer = new StringWriter();
+        long count = exporter.exportLogs(writer, ExportFormat.CSV);
+
+        //then : 첫 줄은 헤더
+        List<String> lines = writer.toString().lines().toList();
+        assertThat(lines.get(0)).isEqualTo("id,message");
+        assertThat(count).isEqualTo(lines.size() - 1);
+        assertThat(lines).contains(
+                plain.getId() + ",exportLogs_csv",
+                comma.getId() + ",\"exportLogs_csv,\"\"comma\"\"\"");
+    }
+
+    /**
+     * streamAll 은 트랜잭션 밖에서 호출할 수 없음 (Stream 을 읽기 전에 커넥션이 반납되므로)
+     */
+    @Test
+    void streamAll_withoutTransaction() {
+        assertThatThrownBy(() -> logRepository.streamAll())
+                .isInstanceOf(IllegalTransactionStateException.class);
+    }
+}
@@ -0,0 +1,52 @@
+package hello.springtx.jpa;
+
+import hello.springtx.propagation.Member;
+import hello.springtx.propagation.MemberRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * flush 지표 (FlushMetrics)
+ - 한 트랜잭션에서 저장한 회원은 커밋 시점 flush 한 번으로 반영되고, 그 크기가 transaction.flush.size 에 기록됨
+ */
+@SpringBootTest
+@AutoConfigureObservability
+class FlushMetricsTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    PlatformTransactionManager txManager;
+
+    @Autowired
+    MeterRegistry registry;
+
+    @Test
+    void flushAtCommit() {
+        //given
+        DistributionSummary flushSize = registry.get("transaction.flush.size").summary();
+        long before = flushSize.count();
+        TransactionTemplate template = new TransactionTemplate(txManager);
+
+        //when
+        template.executeWithoutResult(status -> {
+            for (int i = 0; i < 3; i++) {
+                memberRepository.save(new Member("flushAtCommit" + i));
+            }
+        });
+
+        //then
+        assertThat(flushSize.count()).isGreaterThan(before);
+        assertThat(flushSize.max()).isGreaterThanOrEqualTo(3);
+        assertThat(registry.get("transaction.flush").timer().count()).isGreaterThanOrEqualTo(1);
+    }
+}
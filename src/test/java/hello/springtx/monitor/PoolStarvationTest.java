@@ -0,0 +1,161 @@
+package hello.springtx.monitor;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 커넥션 풀 고갈 데드락
+ - 커넥션 풀 2개, 스레드 2개, 커넥션 획득 타임아웃 250ms
+ - 스레드마다 외부 트랜잭션(REQUIRED)으로 커넥션을 하나씩 잡고, 모두 잡은 뒤에(CyclicBarrier) REQUIRES_NEW 를 요청
+ - 필요한 최소 풀 크기 = 2 x (2 - 1) + 1 = 3
+ */
+@Slf4j
+@SpringBootTest(properties = {
+        "spring.datasource.hikari.maximum-pool-size=2",
+        "spring.datasource.hikari.connection-timeout=250",
+        "springtx.pool-advisor.mode=WARN",
+        "springtx.pool-advisor.threads=2"
+})
+class PoolStarvationTest {
+
+    static final int THREADS = 2;
+
+    @Autowired
+    PlatformTransactionManager txManager;
+
+    @Autowired
+    PoolSizingAdvisor advisor;
+
+    @Autowired
+    DataSource dataSource;
+
+    /**
+     * 스레드 하나 : 외부 트랜잭션 + REQUIRES_NEW 로 커넥션 2개를 사용
+     - 진입점(가장 바깥 트랜잭션 이름) 별 최대 깊이 2 가 기록됨
+     */
+    @Test
+    void depth() {
+        //when
+        TransactionStatus outer = txManager.getTransaction(definition("depth.outer", TransactionDefinition.PROPAGATION_REQUIRED));
+        TransactionStatus inner = txManager.getTransaction(definition("depth.inner", TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+        txManager.commit(inner);
+        txManager.commit(outer);
+
+        //then
+        assertThat(advisor.getMaxDepth("depth.outer")).isEqualTo(2);
+        assertThat(advisor.getMaxDepths()).containsEntry("depth.outer", 2);
+        assertThat(advisor.getRequiredPoolSize(2)).isEqualTo(3);
+        assertThat(advisor.isStarvationPossible(2)).isTrue();
+    }
+
+    /**
+     * 풀 고갈 재현 (WARN : 경고만 남기고 그대로 진행)
+     - 모든 스레드가 커넥션을 하나씩 잡고 있으므로 REQUIRES_NEW 는 아무도 커넥션을 얻지 못함
+     - 커넥션 획득 타임아웃 후 CannotCreateTransactionException
+     */
+    @Test
+    void starvation() throws Exception {
+        //when
+        long start = System.nanoTime();
+        List<Throwable> failures = runOuterThenRequiresNew(txManager, "starvation");
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        //then
+        log.info("failures={}, elapsed={}ms", failures.size(), elapsedMillis);
+        assertThat(failures).hasSize(THREADS);
+        assertThat(failures).allMatch(CannotCreateTransactionException.class::isInstance);
+        assertThat(elapsedMillis).isGreaterThanOrEqualTo(250);
+    }
+
+    /**
+     * FAIL : 커넥션을 기다리지 않고 REQUIRES_NEW 시작 전에 바로 실패
+     - 같은 트랜잭션 매니저(delegate)에 FAIL 모드 advisor 만 등록한 ListeningTransactionManager 로 확인
+     */
+    @Test
+    void failFast() {
+        //given
+        PoolSizingAdvisor failAdvisor = new PoolSizingAdvisor(dataSource, new SimpleMeterRegistry(), PoolSizingAdvisor.Mode.FAIL, THREADS);
+        PlatformTransactionManager delegate = ((ListeningTransactionManager) txManager).getDelegate();
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("poolSizingAdvisor", failAdvisor));
+        PlatformTransactionManager failTxManager =
+                new ListeningTransactionManager(delegate, beanFactory.getBeanProvider(TransactionListener.class));
+
+        //when
+        TransactionStatus outer = failTxManager.getTransaction(definition("failFast.outer", TransactionDefinition.PROPAGATION_REQUIRED));
+        try {
+            assertThatThrownBy(() -> failTxManager.getTransaction(definition("failFast.inner", TransactionDefinition.PROPAGATION_REQUIRES_NEW)))
+                    .isInstanceOf(CannotCreateTransactionException.class)
+                    .hasMessageContaining("failFast.outer");
+        } finally {
+            failTxManager.rollback(outer);
+        }
+
+        //then : 외부 트랜잭션 종료 후에는 다시 시작할 수 있음
+        TransactionStatus next = failTxManager.getTransaction(definition("failFast.next", TransactionDefinition.PROPAGATION_REQUIRED));
+        failTxManager.commit(next);
+    }
+
+    private List<Throwable> runOuterThenRequiresNew(PlatformTransactionManager tm, String name) throws Exception {
+        CyclicBarrier barrier = new CyclicBarrier(THREADS);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Throwable>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    TransactionStatus outer = tm.getTransaction(definition(name + ".outer", TransactionDefinition.PROPAGATION_REQUIRED));
+                    try {
+                        //모든 스레드가 커넥션을 하나씩 잡을 때까지 대기
+                        barrier.await(5, TimeUnit.SECONDS);
+                        TransactionStatus inner = tm.getTransaction(definition(name + ".inner", TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+                        tm.commit(inner);
+                        return null;
+                    } catch (TransactionException e) {
+                        return e;
+                    } finally {
+                        tm.rollback(outer);
+                    }
+                }));
+            }
+
+            List<Throwable> failures = new ArrayList<>();
+            for (Future<Throwable> future : futures) {
+                Throwable failure = future.get(10, TimeUnit.SECONDS);
+                if (failure != null) {
+                    failures.add(failure);
+                }
+            }
+            return failures;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static TransactionDefinition definition(String name, int propagation) {
+        DefaultTransactionDefinition definition = new DefaultTransactionDefinition(propagation);
+        definition.setName(name);
+        return definition;
+    }
+}
@@ -0,0 +1,110 @@
+package hello.springtx.monitor;
+
+import hello.springtx.order.NotEnoughMoneyException;
+import hello.springtx.order.Order;
+import hello.springtx.order.OrderService;
+import hello.springtx.propagation.MemberService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 트랜잭션 지표
+ - @AutoConfigureObservability : 테스트에서도 SimpleMeterRegistry 에 지표를 기록하도록 설정
+ - 같은 컨텍스트를 여러 테스트가 공유하므로 호출 전후의 증가량으로 확인
+ */
+@SpringBootTest
+@AutoConfigureObservability
+class TransactionMetricsTest {
+
+    static final String ORDER = "hello.springtx.order.OrderService.order";
+    static final String LOG_SAVE = "hello.springtx.propagation.LogRepository.save";
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    MemberService memberService;
+
+    @Autowired
+    MeterRegistry registry;
+
+    @Autowired
+    PlatformTransactionManager txManager;
+
+    @Test
+    void transactionManagerIsWrapped() {
+        assertThat(txManager).isInstanceOf(ListeningTransactionManager.class);
+    }
+
+    /**
+     * 체크 예외는 커밋되지만 원인 예외로 집계됨
+     */
+    @Test
+    void bizException_commit() {
+        double before = completions(ORDER, "commit", "NotEnoughMoneyException");
+
+        assertThatThrownBy(() -> orderService.order(newOrder("잔고부족")))
+                .isInstanceOf(NotEnoughMoneyException.class);
+
+        assertThat(completions(ORDER, "commit", "NotEnoughMoneyException")).isEqualTo(before + 1);
+    }
+
+    @Test
+    void runtimeException_rollback() {
+        double before = completions(ORDER, "rollback", "RuntimeException");
+
+        assertThatThrownBy(() -> orderService.order(newOrder("예외")))
+                .isInstanceOf(RuntimeException.class);
+
+        assertThat(completions(ORDER, "rollback", "RuntimeException")).isEqualTo(before + 1);
+    }
+
+    @Test
+    void complete_commit() throws NotEnoughMoneyException {
+        double before = completions(ORDER, "commit", "none");
+
+        orderService.order(newOrder("정상"));
+
+        assertThat(completions(ORDER, "commit", "none")).isEqualTo(before + 1);
+        assertThat(registry.find("transaction.acquire").tag("name", ORDER).timer()).isNotNull();
+        assertThat(registry.find("transaction.body").tag("name", ORDER).timer()).isNotNull();
+    }
+
+    /**
+     * joinV1 -> LogRepository.save(REQUIRES_NEW) 는 외부 트랜잭션을 보류함
+     */
+    @Test
+    void requiresNew_suspended() {
+        Counter counter = registry.find("transaction.suspended").tag("name", LOG_SAVE).counter();
+        double before = (counter != null ? counter.count() : 0);
+
+        memberService.joinV1("metrics_requiresNew");
+
+        Counter after = registry.find("transaction.suspended").tag("name", LOG_SAVE).counter();
+        assertThat(after).isNotNull();
+        assertThat(after.count()).isEqualTo(before + 1);
+    }
+
+    private double completions(String name, String outcome, String exception) {
+        Counter counter = registry.find("transaction.completions")
+                .tag("name", name)
+                .tag("outcome", outcome)
+                .tag("exception", exception)
+                .counter();
+        return (counter != null ? counter.count() : 0);
+    }
+
+    private Order newOrder(String username) {
+        Order order = new Order();
+        order.setUsername(username);
+        return order;
+    }
+}
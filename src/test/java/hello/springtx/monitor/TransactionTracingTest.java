@@ -0,0 +1,157 @@
+package hello.springtx.monitor;
+
+import hello.springtx.propagation.MemberService;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.UnexpectedRollbackException;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 트랜잭션 경계 트레이스
+ - BasicTxTest 의 외부/내부 트랜잭션 흐름을 span 으로 확인
+ - span 은 InMemorySpanExporter 에 모아서 확인 (SimpleSpanProcessor : 종료 즉시 내보냄)
+ - management.tracing.sampling.probability=1.0 : 모든 트레이스를 기록
+ */
+@SpringBootTest(properties = "management.tracing.sampling.probability=1.0")
+@AutoConfigureObservability
+class TransactionTracingTest {
+
+    static final InMemorySpanExporter exporter = InMemorySpanExporter.create();
+
+    static final AttributeKey<String> PHYSICAL = AttributeKey.stringKey("tx.physical");
+    static final AttributeKey<String> SUSPENDING = AttributeKey.stringKey("tx.suspending");
+    static final AttributeKey<String> PROPAGATION = AttributeKey.stringKey("tx.propagation");
+    static final AttributeKey<String> OUTCOME = AttributeKey.stringKey("tx.outcome");
+    static final AttributeKey<String> ROLLBACK_ONLY = AttributeKey.stringKey("tx.rollback_only");
+    static final AttributeKey<String> MARKED_BY = AttributeKey.stringKey("tx.rollback_only.marked_by");
+
+    @Autowired
+    PlatformTransactionManager txManager;
+
+    @Autowired
+    MemberService memberService;
+
+    @TestConfiguration
+    static class TracingConfig {
+        @Bean
+        SpanProcessor inMemorySpanProcessor() {
+            return SimpleSpanProcessor.create(exporter);
+        }
+    }
+
+    @BeforeEach
+    void init() {
+        exporter.reset();
+    }
+
+    /**
+     * 내부 트랜잭션(참여)은 외부 트랜잭션 span 의 자식, 물리 트랜잭션은 외부 하나
+     */
+    @Test
+    void inner_commit() {
+        TransactionStatus outer = txManager.getTransaction(definition("outer", TransactionDefinition.PROPAGATION_REQUIRED));
+        TransactionStatus inner = txManager.getTransaction(definition("inner", TransactionDefinition.PROPAGATION_REQUIRED));
+        txManager.commit(inner);
+        txManager.commit(outer);
+
+        SpanData outerSpan = span("outer");
+        SpanData innerSpan = span("inner");
+        assertThat(innerSpan.getParentSpanId()).isEqualTo(outerSpan.getSpanId());
+        assertThat(innerSpan.getTraceId()).isEqualTo(outerSpan.getTraceId());
+        assertThat(outerSpan.getAttributes().get(PHYSICAL)).isEqualTo("true");
+        assertThat(innerSpan.getAttributes().get(PHYSICAL)).isEqualTo("false");
+        assertThat(innerSpan.getAttributes().get(OUTCOME)).isEqualTo("commit");
+        assertThat(outerSpan.getAttributes().get(OUTCOME)).isEqualTo("commit");
+    }
+
+    /**
+     * 내부 트랜잭션 롤백 -> 외부 트랜잭션 rollbackOnly -> 외부 커밋시 UnexpectedRollbackException
+     - 외부 span 에 rollbackOnly 를 표시한 내부 트랜잭션 이름이 남음
+     */
+    @Test
+    void inner_rollback() {
+        TransactionStatus outer = txManager.getTransaction(definition("outer", TransactionDefinition.PROPAGATION_REQUIRED));
+        TransactionStatus inner = txManager.getTransaction(definition("inner", TransactionDefinition.PROPAGATION_REQUIRED));
+        txManager.rollback(inner);
+
+        assertThatThrownBy(() -> txManager.commit(outer))
+                .isInstanceOf(UnexpectedRollbackException.class);
+
+        SpanData outerSpan = span("outer");
+        SpanData innerSpan = span("inner");
+        assertThat(innerSpan.getAttributes().get(ROLLBACK_ONLY)).isEqualTo("true");
+        assertThat(innerSpan.getAttributes().get(OUTCOME)).isEqualTo("rollback");
+        assertThat(outerSpan.getAttributes().get(OUTCOME)).isEqualTo("unexpected_rollback");
+        assertThat(outerSpan.getAttributes().get(MARKED_BY)).isEqualTo("inner");
+    }
+
+    /**
+     * REQUIRES_NEW 는 별도의 물리 트랜잭션이지만 span 은 외부 트랜잭션의 자식
+     - 내부 롤백이 외부 트랜잭션을 rollbackOnly 로 표시하지 않음
+     */
+    @Test
+    void inner_rollback_requiresNew() {
+        TransactionStatus outer = txManager.getTransaction(definition("outer", TransactionDefinition.PROPAGATION_REQUIRED));
+        TransactionStatus inner = txManager.getTransaction(definition("inner", TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+        txManager.rollback(inner);
+        txManager.commit(outer);
+
+        SpanData outerSpan = span("outer");
+        SpanData innerSpan = span("inner");
+        assertThat(innerSpan.getParentSpanId()).isEqualTo(outerSpan.getSpanId());
+        assertThat(innerSpan.getAttributes().get(PHYSICAL)).isEqualTo("true");
+        assertThat(innerSpan.getAttributes().get(SUSPENDING)).isEqualTo("true");
+        assertThat(innerSpan.getAttributes().get(ROLLBACK_ONLY)).isNull();
+        assertThat(outerSpan.getAttributes().get(OUTCOME)).isEqualTo("commit");
+        assertThat(outerSpan.getAttributes().get(MARKED_BY)).isNull();
+    }
+
+    /**
+     * joinV1 : 회원 저장은 참여, 로그 저장은 REQUIRES_NEW
+     */
+    @Test
+    void joinV1() {
+        memberService.joinV1("tracing_joinV1");
+
+        SpanData join = span("hello.springtx.propagation.MemberService.joinV1");
+        SpanData memberSave = span("hello.springtx.propagation.MemberRepository.save");
+        SpanData logSave = span("hello.springtx.propagation.LogRepository.save");
+        assertThat(memberSave.getParentSpanId()).isEqualTo(join.getSpanId());
+        assertThat(logSave.getParentSpanId()).isEqualTo(join.getSpanId());
+        assertThat(memberSave.getAttributes().get(PHYSICAL)).isEqualTo("false");
+        assertThat(logSave.getAttributes().get(PHYSICAL)).isEqualTo("true");
+        assertThat(logSave.getAttributes().get(PROPAGATION)).isEqualTo("REQUIRES_NEW");
+    }
+
+    private static TransactionDefinition definition(String name, int propagation) {
+        DefaultTransactionDefinition definition = new DefaultTransactionDefinition(propagation);
+        definition.setName(name);
+        return definition;
+    }
+
+    private static SpanData span(String name) {
+        List<SpanData> spans = exporter.getFinishedSpanItems().stream()
+                .filter(span -> name.equals(span.getName()))
+                .toList();
+        assertThat(spans).hasSize(1);
+        return spans.get(0);
+    }
+}
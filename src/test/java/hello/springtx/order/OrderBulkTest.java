@@ -0,0 +1,59 @@
+package hello.springtx.order;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 대량 주문 처리
+ - 청크(50건) 안에 시스템 예외가 섞여 있어도 실패한 주문만 FAILED 로 처리되는지 확인
+ */
+@SpringBootTest
+class OrderBulkTest {
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    OrderRepository orderRepository;
+
+    @Test
+    void orderAll() {
+        //given : 120건 중 10번째는 잔고부족, 70번째는 시스템 예외
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            String username = (i == 10 ? "잔고부족" : i == 70 ? "예외" : "정상");
+            orders.add(newOrder(username));
+        }
+
+        //when
+        List<OrderResult> results = orderService.orderAll(orders);
+
+        //then : 입력 순서대로 결과 반환
+        assertThat(results).hasSize(120);
+        assertThat(results.get(0).getStatus()).isEqualTo(OrderResult.Status.COMPLETE);
+        assertThat(results.get(10).getStatus()).isEqualTo(OrderResult.Status.WAITING);
+        assertThat(results.get(70).getStatus()).isEqualTo(OrderResult.Status.FAILED);
+        assertThat(results).filteredOn(r -> r.getStatus() == OrderResult.Status.FAILED).hasSize(1);
+
+        //잔고부족 주문은 대기 상태로 저장
+        Order waiting = orderRepository.findById(results.get(10).getOrderId()).orElseThrow();
+        assertThat(waiting.getPayStatus()).isEqualTo("대기");
+
+        //실패한 주문과 같은 청크의 다른 주문도 저장됨
+        Order sameChunk = orderRepository.findById(results.get(71).getOrderId()).orElseThrow();
+        assertThat(sameChunk.getPayStatus()).isEqualTo("완료");
+        assertThat(results.get(70).getOrderId()).isNull();
+    }
+
+    private Order newOrder(String username) {
+        Order order = new Order();
+        order.setUsername(username);
+        return order;
+    }
+}
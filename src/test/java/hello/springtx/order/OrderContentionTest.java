@@ -0,0 +1,86 @@
+package hello.springtx.order;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.LongFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 같은 주문 동시 결제
+ - @Version 이 없으면 동시에 읽은 트랜잭션이 모두 결제하고 마지막 커밋이 덮어씀 (last-writer-wins)
+ - 낙관적 락, 비관적 락 모두 결제(수정)는 한 번만 반영되어야 함 -> version 이 0 에서 1 로 한 번만 증가
+ */
+@SpringBootTest
+class OrderContentionTest {
+
+    static final int THREADS = 8;
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    OrderRepository orderRepository;
+
+    @Test
+    void optimistic() throws Exception {
+        Order order = waitingOrder();
+
+        List<OrderResult> results = payConcurrently(order.getId(), orderService::payWaiting);
+
+        assertThat(results).extracting(OrderResult::getStatus).containsOnly(OrderResult.Status.COMPLETE);
+        Order findOrder = orderRepository.findById(order.getId()).get();
+        assertThat(findOrder.getPayStatus()).isEqualTo("완료");
+        assertThat(findOrder.getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    void pessimistic() throws Exception {
+        Order order = waitingOrder();
+
+        List<OrderResult> results = payConcurrently(order.getId(), orderService::payWaitingLocked);
+
+        assertThat(results).extracting(OrderResult::getStatus).containsOnly(OrderResult.Status.COMPLETE);
+        Order findOrder = orderRepository.findById(order.getId()).get();
+        assertThat(findOrder.getPayStatus()).isEqualTo("완료");
+        assertThat(findOrder.getVersion()).isEqualTo(1L);
+    }
+
+    private Order waitingOrder() {
+        Order order = new Order();
+        order.setUsername("정상");
+        order.setPayStatus("대기");
+        return orderRepository.save(order);
+    }
+
+    private List<OrderResult> payConcurrently(Long orderId, LongFunction<OrderResult> pay) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<OrderResult>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return pay.apply(orderId);
+                }));
+            }
+            start.countDown();
+
+            List<OrderResult> results = new ArrayList<>();
+            for (Future<OrderResult> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
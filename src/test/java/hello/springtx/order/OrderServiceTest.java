@@ -66,4 +66,54 @@ class OrderServiceTest {
         Order findOrder = orderRepository.findById(order.getId()).get();
         assertThat(findOrder.getPayStatus()).isEqualTo("대기");
     }
-}
\ No newline at end of file
+
+    @Test
+    void bizResult() {
+        //given
+        Order order = new Order();
+        order.setUsername("잔고부족");
+
+        //when : 예외 대신 결과로 잔고 부족을 확인
+        OrderResult result = orderService.orderWithResult(order);
+
+        //then
+        assertThat(result.getStatus()).isEqualTo(OrderResult.Status.WAITING);
+        Order findOrder = orderRepository.findById(order.getId()).get();
+        assertThat(findOrder.getPayStatus()).isEqualTo("대기");
+    }
+
+    @Test
+    void completeResult() {
+        //given
+        Order order = new Order();
+        order.setUsername("정상");
+
+        //when
+        OrderResult result = orderService.orderWithResult(order);
+
+        //then
+        assertThat(result.getStatus()).isEqualTo(OrderResult.Status.COMPLETE);
+        assertThat(result.getOrderId()).isEqualTo(order.getId());
+        Order findOrder = orderRepository.findById(order.getId()).get();
+        assertThat(findOrder.getPayStatus()).isEqualTo("완료");
+    }
+
+    @Test
+    void runtimeExceptionResult() {
+        //given
+        Order order = new Order();
+        order.setUsername("예외");
+
+        //when, then : 시스템 예외는 결과가 아닌 예외로 전달되고 롤백
+        assertThatThrownBy(() -> orderService.orderWithResult(order))
+                .isInstanceOf(RuntimeException.class);
+        assertThat(orderRepository.findById(order.getId())).isEmpty();
+    }
+
+    @Test
+    void stacklessException() {
+        NotEnoughMoneyException e = NotEnoughMoneyException.stackless("잔고가 부족합니다");
+        assertThat(e.getStackTrace()).isEmpty();
+        assertThat(e.getMessage()).isEqualTo("잔고가 부족합니다");
+    }
+}
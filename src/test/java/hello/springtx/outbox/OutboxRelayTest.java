@@ -0,0 +1,101 @@
+package hello.springtx.outbox;
+
+import hello.springtx.propagation.LogRepository;
+import hello.springtx.propagation.MemberRepository;
+import hello.springtx.propagation.MemberService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 아웃박스 + relay
+ - 스케줄러(OutboxRelayScheduler)를 켜고 백그라운드 폴링으로 전달될 때까지 기다려서 확인
+ - max-attempts=2 : 실패 이벤트가 두 번 시도된 뒤 더 이상 가져가지 않는지 확인
+ */
+@Slf4j
+@SpringBootTest(properties = {
+        "springtx.outbox.relay.enabled=true",
+        "springtx.outbox.relay.poll-interval-ms=50",
+        "springtx.outbox.relay.max-attempts=2"
+})
+class OutboxRelayTest {
+
+    @Autowired
+    MemberService memberService;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    LogRepository logRepository;
+
+    @Autowired
+    OutboxRepository outboxRepository;
+
+    @Autowired
+    OutboxRelay outboxRelay;
+
+    //springtx.outbox.relay.enabled=true 인 경우에만 등록되므로, 주입되지 않으면 컨텍스트 시작이 실패함
+    @Autowired
+    OutboxRelayScheduler scheduler;
+
+    /**
+     * 회원과 이벤트가 같은 트랜잭션에서 커밋되고, relay 가 로그를 저장하고 이벤트를 삭제
+     */
+    @Test
+    void outbox_success() throws InterruptedException {
+        //given
+        String username = "outbox_success";
+
+        //when
+        memberService.joinWithOutbox(username);
+
+        //then
+        assertTrue(memberRepository.find(username).isPresent());
+        awaitUntil(() -> logRepository.find(username).isPresent());
+        awaitUntil(() -> outboxRepository.find(username).isEmpty());
+    }
+
+    /**
+     * 요청에는 로그 예외가 전달되지 않음 (recoverException_success 와 같은 결과)
+     - 묶음 저장이 실패하면 한 건씩 다시 전달해서 정상 이벤트는 전달되고, 실패 이벤트만 남음
+     - max-attempts 만큼 실패하면 더 이상 가져가지 않음
+     */
+    @Test
+    void outbox_fail() throws InterruptedException {
+        //given
+        String failUsername = "로그예외_outbox_fail";
+        String okUsername = "outbox_fail_ok";
+        long failedCount = outboxRelay.getFailedCount();
+
+        //when
+        memberService.joinWithOutbox(failUsername);
+        memberService.joinWithOutbox(okUsername);
+
+        //then
+        awaitUntil(() -> logRepository.find(okUsername).isPresent());
+        awaitUntil(() -> outboxRepository.find(failUsername).orElseThrow().getAttempts() == 2);
+        assertTrue(memberRepository.find(failUsername).isPresent());
+        assertTrue(logRepository.find(failUsername).isEmpty());
+
+        //max-attempts 이후에는 더 이상 시도하지 않음 (폴링 몇 번을 더 기다려도 그대로)
+        Thread.sleep(200);
+        assertThat(outboxRepository.find(failUsername).orElseThrow().getAttempts()).isEqualTo(2);
+        assertThat(outboxRelay.getFailedCount()).isEqualTo(failedCount + 2);
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("relay 전달 대기 시간 초과").isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+}
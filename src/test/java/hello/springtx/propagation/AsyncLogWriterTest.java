@@ -0,0 +1,86 @@
+package hello.springtx.propagation;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+@SpringBootTest
+class AsyncLogWriterTest {
+
+    @Autowired
+    MemberService memberService;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    LogRepository logRepository;
+
+    @Autowired
+    AsyncLogWriter asyncLogWriter;
+
+    /**
+     * 회원은 요청 트랜잭션에서 커밋되고, 로그는 writer 스레드가 나중에 저장
+     */
+    @Test
+    void asyncLog_success() throws InterruptedException {
+        //given
+        String username = "asyncLog_success";
+
+        //when
+        memberService.joinWithAsyncLog(username);
+
+        //then
+        assertTrue(asyncLogWriter.awaitIdle(Duration.ofSeconds(5)));
+        assertTrue(memberRepository.find(username).isPresent());
+        assertTrue(logRepository.find(username).isPresent());
+    }
+
+    /**
+     * recoverException_success 와 같은 결과 : member 저장, log 롤백
+     - 요청 스레드에는 로그 예외가 전달되지 않음
+     */
+    @Test
+    void asyncLog_fail() throws InterruptedException {
+        //given
+        String username = "로그예외_asyncLog_fail";
+        long failedCount = asyncLogWriter.getFailedCount();
+
+        //when
+        memberService.joinWithAsyncLog(username);
+
+        //then
+        assertTrue(asyncLogWriter.awaitIdle(Duration.ofSeconds(5)));
+        assertTrue(memberRepository.find(username).isPresent());
+        assertTrue(logRepository.find(username).isEmpty());
+        assertThat(asyncLogWriter.getFailedCount()).isEqualTo(failedCount + 1);
+    }
+
+    /**
+     * 같은 묶음에 실패하는 로그가 섞여 있어도 나머지 로그는 저장됨
+     */
+    @Test
+    void asyncLog_batchWithFailure() throws InterruptedException {
+        //when
+        for (int i = 0; i < 10; i++) {
+            asyncLogWriter.write(new Log("batch_" + i));
+        }
+        asyncLogWriter.write(new Log("로그예외_batch"));
+
+        //then
+        assertTrue(asyncLogWriter.awaitIdle(Duration.ofSeconds(5)));
+        for (int i = 0; i < 10; i++) {
+            assertTrue(logRepository.find("batch_" + i).isPresent());
+        }
+        assertTrue(logRepository.find("로그예외_batch").isEmpty());
+        log.info("flush count = {}, last flush latency = {}",
+                asyncLogWriter.getFlushCount(), asyncLogWriter.getLastFlushLatency());
+    }
+}
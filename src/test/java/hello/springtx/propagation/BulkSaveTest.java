@@ -0,0 +1,61 @@
+package hello.springtx.propagation;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 일괄 저장
+ - batch_size(50) 보다 많은 건수를 저장해서 flush/clear 가 여러 번 일어나는 경우를 확인
+ */
+@SpringBootTest
+class BulkSaveTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    LogRepository logRepository;
+
+    @Test
+    void memberSaveAll() {
+        //given
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            members.add(new Member("memberSaveAll_" + i));
+        }
+
+        //when
+        memberRepository.saveAll(members);
+
+        //then : pooled 시퀀스로 할당된 id 가 모두 다름
+        assertThat(members).extracting(Member::getId).doesNotContainNull().doesNotHaveDuplicates();
+        assertTrue(memberRepository.find("memberSaveAll_0").isPresent());
+        assertTrue(memberRepository.find("memberSaveAll_119").isPresent());
+    }
+
+    @Test
+    void logSaveAll_fail() {
+        //given : 두 번째 flush 이후에 실패하는 로그
+        List<Log> logs = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            logs.add(new Log("logSaveAll_fail_" + i));
+        }
+        logs.add(new Log("로그예외_logSaveAll_fail"));
+
+        //when
+        assertThatThrownBy(() -> logRepository.saveAll(logs))
+                .isInstanceOf(RuntimeException.class);
+
+        //then : 이미 flush 된 로그도 함께 롤백
+        assertTrue(logRepository.find("logSaveAll_fail_0").isEmpty());
+        assertTrue(logRepository.find("logSaveAll_fail_99").isEmpty());
+    }
+}
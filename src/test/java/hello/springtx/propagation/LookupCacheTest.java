@@ -0,0 +1,119 @@
+package hello.springtx.propagation;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "springtx.lookup-cache.max-size=100")
+class LookupCacheTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    EntityManager em;
+
+    @Test
+    void lruEviction() {
+        LookupCache<String, String> cache = new LookupCache<>(2);
+        cache.put("a", "A");
+        cache.put("b", "B");
+        cache.get("a");
+        cache.put("c", "C");
+
+        //가장 오래 사용하지 않은 b 가 제거됨
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("a")).isEqualTo("A");
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.getHitCount()).isEqualTo(2);
+        assertThat(cache.getMissCount()).isEqualTo(1);
+    }
+
+    /**
+     * 쓰기 트랜잭션에서 조회한 값은 커밋되지 않았을 수 있으므로 보관하지 않음
+     */
+    @Test
+    void fillOnlyReadOnly() {
+        LookupCache<String, String> cache = new LookupCache<>(10);
+
+        transactionTemplate.executeWithoutResult(status -> cache.fill("a", "A", cache.generation()));
+        assertThat(cache.size()).isZero();
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> cache.fill("a", "A", cache.generation()));
+        assertThat(cache.get("a")).isEqualTo("A");
+    }
+
+    /**
+     * 조회하는 동안 무효화가 있었으면 조회한 값(무효화 이전 값일 수 있음)을 보관하지 않음
+     */
+    @Test
+    void staleFillSkipped() {
+        LookupCache<String, String> cache = new LookupCache<>(10);
+        long generation = cache.generation();
+
+        cache.invalidate("a");
+        cache.fill("a", "old", generation);
+
+        assertThat(cache.get("a")).isNull();
+    }
+
+    @Test
+    void findReturnsCopy() {
+        //given
+        String username = "lookupCache_copy";
+        memberRepository.save(new Member(username));
+
+        //when
+        Member first = memberRepository.find(username).orElseThrow();
+        Member second = memberRepository.find(username).orElseThrow();
+
+        //then : 캐시에서 복사본을 받으므로 다른 인스턴스지만 같은 데이터
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getId()).isEqualTo(first.getId());
+        assertTrue(memberRepository.exists(username));
+    }
+
+    /**
+     * 캐시 적중 여부와 관계없이 영속성 컨텍스트에 없는 복사본을 반환
+     - 저장시 무효화되었으므로 캐시에 없음 (miss) -> 조회한 엔티티가 아닌 복사본
+     */
+    @Test
+    void findReturnsDetachedOnMiss() {
+        String username = "lookupCache_detached";
+        memberRepository.save(new Member(username));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Member first = memberRepository.find(username).orElseThrow();
+            assertThat(em.contains(first)).isFalse();
+        });
+    }
+
+    /**
+     * 트랜잭션 안에서 저장 후 조회한 값이 캐시에 들어가도, 롤백되면 캐시에서 제거됨
+     */
+    @Test
+    void rollbackInvalidatesCache() {
+        //given
+        String username = "lookupCache_rollback";
+
+        //when
+        transactionTemplate.executeWithoutResult(status -> {
+            memberRepository.save(new Member(username));
+            assertTrue(memberRepository.find(username).isPresent());
+            status.setRollbackOnly();
+        });
+
+        //then
+        assertTrue(memberRepository.find(username).isEmpty());
+    }
+}
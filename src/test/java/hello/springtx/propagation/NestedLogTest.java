@@ -0,0 +1,165 @@
+package hello.springtx.propagation;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import hello.springtx.monitor.TransactionListener;
+import hello.springtx.monitor.TransactionRecord;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * NESTED(세이브포인트) 로그 저장
+ - MemberServiceTest 의 recoverException_success 와 같은 결과를 커넥션 하나로 얻는지 확인
+ - ActiveConnectionProbe : 트랜잭션이 시작될 때마다 커넥션 풀의 사용 중인 커넥션 수를 기록
+ */
+@Slf4j
+@SpringBootTest
+class NestedLogTest {
+
+    @Autowired
+    MemberService memberService;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    LogRepository logRepository;
+
+    @Autowired
+    PlatformTransactionManager txManager;
+
+    @Autowired
+    ActiveConnectionProbe probe;
+
+    @TestConfiguration
+    static class ProbeConfig {
+
+        @Bean
+        ActiveConnectionProbe activeConnectionProbe(DataSource dataSource) {
+            HikariDataSource hikari = DataSourceUnwrapper.unwrap(dataSource, HikariDataSource.class);
+            return new ActiveConnectionProbe(hikari.getHikariPoolMXBean());
+        }
+    }
+
+    static class ActiveConnectionProbe implements TransactionListener {
+
+        private final HikariPoolMXBean pool;
+        private final AtomicInteger maxActive = new AtomicInteger();
+
+        ActiveConnectionProbe(HikariPoolMXBean pool) {
+            this.pool = pool;
+        }
+
+        @Override
+        public void afterBegin(TransactionRecord record) {
+            maxActive.accumulateAndGet(pool.getActiveConnections(), Math::max);
+        }
+
+        void reset() {
+            maxActive.set(0);
+        }
+
+        int getMaxActive() {
+            return maxActive.get();
+        }
+    }
+
+    /**
+     * MemberService        @Transactional : ON
+     * MemberRepository     @Transactional : ON
+     * LogRepository        @Transactional(NESTED) : ON
+
+     * 회원, 로그 모두 저장
+     */
+    @Test
+    void nested_success() {
+        //given
+        String username = "nested_success";
+
+        //when
+        memberService.joinWithNestedLog(username);
+
+        //then
+        assertTrue(memberRepository.find(username).isPresent());
+        assertTrue(logRepository.find(username).isPresent());
+    }
+
+    /**
+     * MemberService        @Transactional : ON
+     * MemberRepository     @Transactional : ON
+     * LogRepository        @Transactional(NESTED) : ON Exception
+
+     * 정리
+     - 로그 저장 예외는 세이브포인트까지만 롤백하고, 외부 트랜잭션은 rollbackOnly 가 설정되지 않음
+     - recoverException_success(REQUIRES_NEW) 와 같은 결과
+     */
+    @Test
+    void nested_recoverException() {
+        //given
+        String username = "로그예외_nested_recoverException";
+
+        //when
+        memberService.joinWithNestedLog(username);
+
+        //then : member 저장, log 롤백
+        assertTrue(memberRepository.find(username).isPresent());
+        assertTrue(logRepository.find(username).isEmpty());
+    }
+
+    /**
+     * 외부 트랜잭션 롤백
+     - REQUIRES_NEW 는 로그가 이미 커밋되어 남지만, NESTED 는 외부 트랜잭션과 함께 롤백됨
+     */
+    @Test
+    void nested_outerRollback() {
+        //given
+        String username = "nested_outerRollback";
+        TransactionTemplate template = new TransactionTemplate(txManager);
+
+        //when
+        template.executeWithoutResult(status -> {
+            memberRepository.save(new Member(username));
+            logRepository.saveNested(new Log(username));
+            status.setRollbackOnly();
+        });
+
+        //then
+        assertTrue(memberRepository.find(username).isEmpty());
+        assertTrue(logRepository.find(username).isEmpty());
+    }
+
+    /**
+     * 요청당 커넥션 사용량
+     - joinV2 (REQUIRES_NEW) : 외부 트랜잭션 커넥션을 유지한 채 하나를 더 획득 -> 2개
+     - joinWithNestedLog (NESTED) : 외부 트랜잭션 커넥션만 사용 -> 1개
+     */
+    @Test
+    void connectionUsage() {
+        //when
+        probe.reset();
+        memberService.joinV2("connectionUsage_requiresNew");
+        int requiresNew = probe.getMaxActive();
+
+        probe.reset();
+        memberService.joinWithNestedLog("connectionUsage_nested");
+        int nested = probe.getMaxActive();
+
+        //then
+        log.info("active connections requiresNew={}, nested={}", requiresNew, nested);
+        assertThat(requiresNew).isEqualTo(2);
+        assertThat(nested).isEqualTo(1);
+    }
+}
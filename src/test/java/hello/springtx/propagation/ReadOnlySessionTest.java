@@ -0,0 +1,92 @@
+package hello.springtx.propagation;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * readOnly 트랜잭션의 Hibernate 세션
+ - 스프링(HibernateJpaDialect)은 readOnly 트랜잭션을 시작할 때 세션을 기본 읽기 전용, FlushMode.MANUAL 로 설정
+ -> 로딩한 엔티티의 스냅샷을 만들지 않고, 커밋 시점에 flush(변경 감지)도 하지 않음
+ */
+@SpringBootTest
+class ReadOnlySessionTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    PlatformTransactionManager txManager;
+
+    @Test
+    void readOnly_session() {
+        //given
+        String username = "readOnly_session";
+        memberRepository.save(new Member(username));
+        TransactionTemplate template = new TransactionTemplate(txManager);
+        template.setReadOnly(true);
+
+        //when
+        template.executeWithoutResult(status -> {
+            Session session = em.unwrap(Session.class);
+            List<Member> members = memberRepository.findAll();
+            Member member = members.stream()
+                    .filter(m -> m.getUsername().equals(username))
+                    .findAny()
+                    .orElseThrow();
+
+            //then
+            assertThat(session.isDefaultReadOnly()).isTrue();
+            assertThat(session.getHibernateFlushMode()).isEqualTo(FlushMode.MANUAL);
+            assertThat(session.isReadOnly(member)).isTrue();
+
+            //읽기 전용 엔티티는 변경해도 반영되지 않음
+            member.setUsername(username + "_changed");
+        });
+
+        //then
+        assertThat(memberRepository.find(username)).isPresent();
+        assertThat(memberRepository.find(username + "_changed")).isEmpty();
+    }
+
+    /**
+     * 쓰기 트랜잭션에 참여한 findAll 은 일반 엔티티로 로딩하고 변경 감지 대상이 됨
+     */
+    @Test
+    void readWrite_session() {
+        //given
+        String username = "readWrite_session";
+        memberRepository.save(new Member(username));
+        TransactionTemplate template = new TransactionTemplate(txManager);
+
+        //when
+        template.executeWithoutResult(status -> {
+            Session session = em.unwrap(Session.class);
+            Member member = memberRepository.findAll().stream()
+                    .filter(m -> m.getUsername().equals(username))
+                    .findAny()
+                    .orElseThrow();
+
+            //then
+            assertThat(session.isDefaultReadOnly()).isFalse();
+            assertThat(session.isReadOnly(member)).isFalse();
+
+            member.setUsername(username + "_changed");
+        });
+
+        //then
+        assertThat(memberRepository.find(username + "_changed")).isPresent();
+    }
+}
@@ -0,0 +1,219 @@
+package hello.springtx.retry;
+
+import hello.springtx.propagation.Log;
+import hello.springtx.propagation.LogRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 일시적인 예외 재시도
+ - RetryInterceptor 가 트랜잭션 AOP 바깥에서 실행되어 시도마다 새 트랜잭션이 시작되는지 확인
+ - @AutoConfigureObservability : 재시도 지표를 확인하기 위해 사용
+ */
+@SpringBootTest
+@AutoConfigureObservability
+class RetryTest {
+
+    @Autowired
+    FlakyService flakyService;
+
+    @Autowired
+    PlatformTransactionManager txManager;
+
+    @Autowired
+    MeterRegistry registry;
+
+    @Autowired
+    LogRepository logRepository;
+
+    @BeforeEach
+    void init() {
+        flakyService.reset(0);
+    }
+
+    @Test
+    void recovered() {
+        //when : 두 번 락 획득 실패 후 성공
+        flakyService.reset(2);
+        flakyService.lockTimeout();
+
+        //then
+        assertThat(flakyService.newTransactions()).containsExactly(true, true, true);
+        assertThat(registry.get("transaction.retry.results")
+                .tag("name", "FlakyService.lockTimeout")
+                .tag("outcome", "recovered")
+                .counter().count()).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    void exhausted() {
+        //when : maxAttempts(3) 를 넘어서 계속 실패
+        flakyService.reset(10);
+
+        //then
+        assertThatThrownBy(() -> flakyService.lockTimeout())
+                .isInstanceOf(CannotAcquireLockException.class);
+        assertThat(flakyService.newTransactions()).hasSize(3);
+    }
+
+    @Test
+    void sqlState() {
+        //when : SQLState 40001 (직렬화 실패) 이 원인인 예외
+        flakyService.reset(1);
+        flakyService.serializationFailure();
+
+        //then
+        assertThat(flakyService.newTransactions()).hasSize(2);
+    }
+
+    @Test
+    void notTransient() {
+        //when : 일반 런타임 예외는 재시도하지 않음
+        assertThatThrownBy(() -> flakyService.systemFailure())
+                .isInstanceOf(RuntimeException.class);
+
+        //then
+        assertThat(flakyService.newTransactions()).hasSize(1);
+    }
+
+    /**
+     * timeout 은 일시적인 예외(TransientDataAccessException)라도 재시도하지 않음
+     - 같은 timeout 으로 다시 실행하면 커넥션을 같은 시간만큼 잡고 있다가 다시 실패하기 때문
+     */
+    @Test
+    void timeoutNotRetried() {
+        //when
+        flakyService.reset(1);
+
+        //then
+        assertThatThrownBy(() -> flakyService.queryTimeout())
+                .isInstanceOf(QueryTimeoutException.class);
+        assertThat(flakyService.newTransactions()).hasSize(1);
+    }
+
+    /**
+     * 외부 트랜잭션에 참여한 호출은 재시도하지 않음
+     */
+    @Test
+    void joinedTransaction() {
+        flakyService.reset(1);
+        TransactionTemplate template = new TransactionTemplate(txManager);
+
+        assertThatThrownBy(() -> template.executeWithoutResult(status -> flakyService.lockTimeout()))
+                .isInstanceOf(CannotAcquireLockException.class);
+        assertThat(flakyService.newTransactions()).containsExactly(false);
+    }
+
+    /**
+     * REQUIRES_NEW 로 먼저 커밋한 내용은 바깥 트랜잭션을 다시 시도해도 되돌릴 수 없음
+     - 시도마다 로그가 하나씩 추가됨 -> 이런 메서드(MemberService.joinV1)에는 @RetryOnTransientFailure 를 붙이지 않음
+     */
+    @Test
+    void requiresNewNotUndone() {
+        //when : 로그 저장(REQUIRES_NEW 커밋) 후 한 번 락 획득 실패
+        flakyService.reset(1);
+        flakyService.logThenLockTimeout("retry_requiresNew");
+
+        //then
+        assertThat(logRepository.findAll())
+                .filteredOn(logMessage -> logMessage.getMessage().equals("retry_requiresNew"))
+                .hasSize(2);
+    }
+
+    @TestConfiguration
+    static class RetryTestConfig {
+        @Bean
+        FlakyService flakyService(LogRepository logRepository) {
+            return new FlakyService(logRepository);
+        }
+    }
+
+    /**
+     * 필드는 프록시가 아닌 실제 객체에 있으므로 메서드로 접근
+     */
+    @Slf4j
+    static class FlakyService {
+
+        private final LogRepository logRepository;
+        private int failures;
+        private final List<Boolean> newTransactions = new ArrayList<>();
+
+        FlakyService(LogRepository logRepository) {
+            this.logRepository = logRepository;
+        }
+
+        public void reset(int failures) {
+            this.failures = failures;
+            newTransactions.clear();
+        }
+
+        public List<Boolean> newTransactions() {
+            return newTransactions;
+        }
+
+        @RetryOnTransientFailure(backoffMs = 1)
+        @Transactional
+        public void lockTimeout() {
+            newTransactions.add(TransactionAspectSupport.currentTransactionStatus().isNewTransaction());
+            if (failures-- > 0) {
+                log.info("락 획득 실패");
+                throw new CannotAcquireLockException("lock timeout");
+            }
+        }
+
+        @RetryOnTransientFailure(backoffMs = 1)
+        @Transactional
+        public void serializationFailure() {
+            newTransactions.add(TransactionAspectSupport.currentTransactionStatus().isNewTransaction());
+            if (failures-- > 0) {
+                throw new IllegalStateException("wrapped", new SQLException("serialization failure", "40001"));
+            }
+        }
+
+        @RetryOnTransientFailure(backoffMs = 1)
+        @Transactional
+        public void queryTimeout() {
+            newTransactions.add(TransactionAspectSupport.currentTransactionStatus().isNewTransaction());
+            if (failures-- > 0) {
+                throw new QueryTimeoutException("query timeout");
+            }
+        }
+
+        @RetryOnTransientFailure(backoffMs = 1)
+        @Transactional
+        public void logThenLockTimeout(String message) {
+            newTransactions.add(TransactionAspectSupport.currentTransactionStatus().isNewTransaction());
+            logRepository.save(new Log(message));
+            if (failures-- > 0) {
+                throw new CannotAcquireLockException("lock timeout");
+            }
+        }
+
+        @RetryOnTransientFailure(backoffMs = 1)
+        @Transactional
+        public void systemFailure() {
+            newTransactions.add(TransactionAspectSupport.currentTransactionStatus().isNewTransaction());
+            throw new RuntimeException("시스템 예외");
+        }
+    }
+}
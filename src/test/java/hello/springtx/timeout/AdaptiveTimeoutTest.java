@@ -0,0 +1,166 @@
+package hello.springtx.timeout;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.interceptor.TransactionAttributeSource;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 트랜잭션 timeout
+ - H2 함수 SLOW_ROW 로 행마다 지연을 넣어서 느린 쿼리를 만듦 (ROWS 행 x SLOW_ROW_MILLIS = 20초)
+ - 표본이 없으므로 상한(max-seconds=2)이 적용되고, 하이버네이트가 남은 시간을 Statement.setQueryTimeout 으로 설정
+ -> H2 가 쿼리를 취소하므로 20초를 기다리지 않고 실패하고, transaction.timeouts 가 증가해야 함
+ - H2 는 128 행마다 취소 여부를 확인하므로 실제 실패 시점은 timeout 보다 조금 늦음
+ */
+@SpringBootTest(properties = {
+        "springtx.tx-timeout.enabled=true",
+        "springtx.tx-timeout.max-seconds=2"
+})
+@AutoConfigureObservability
+class AdaptiveTimeoutTest {
+
+    static final String SLOW = "hello.springtx.timeout.AdaptiveTimeoutTest$SlowService.slowRows";
+    static final int ROWS = 2000;
+    static final int SLOW_ROW_MILLIS = 10;
+
+    @Autowired
+    SlowService slowService;
+
+    @Autowired
+    AdaptiveTimeoutPolicy policy;
+
+    @Autowired
+    MeterRegistry registry;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    ApplicationContext context;
+
+    @BeforeEach
+    void createFunction() {
+        jdbcTemplate.execute("CREATE ALIAS IF NOT EXISTS SLOW_ROW FOR \""
+                + SlowFunctions.class.getName() + ".slowRow\"");
+    }
+
+    @Test
+    void slowQueryTimesOut() {
+        double before = timeouts();
+        assertThat(policy.getTimeoutSeconds(SLOW)).isEqualTo(2);
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> slowService.slowRows(ROWS))
+                .satisfies(ex -> assertThat(AdaptiveTimeoutPolicy.isTimeout(ex)).isTrue());
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(elapsedMillis).isLessThan(ROWS * SLOW_ROW_MILLIS / 2);
+        assertThat(timeouts() - before).isEqualTo(1);
+    }
+
+    @Test
+    void fastQueryCommits() {
+        assertThat(slowService.slowRows(1)).hasSize(1);
+    }
+
+    //직접 지정한 timeout 은 그대로 사용
+    @Test
+    void explicitTimeout() throws NoSuchMethodException {
+        TransactionAttributeSource source = context.getBeansOfType(TransactionAspectSupport.class).values().iterator().next()
+                .getTransactionAttributeSource();
+
+        assertThat(source.getTransactionAttribute(SlowService.class.getMethod("explicit"), SlowService.class)
+                .getTimeout()).isEqualTo(5);
+        assertThat(source.getTransactionAttribute(SlowService.class.getMethod("slowRows", int.class), SlowService.class)
+                .getTimeout()).isEqualTo(2);
+    }
+
+    /**
+     * timeout = p99 x 3 (올림), 2 ~ 10 초로 제한
+     - 표본이 min-samples(10) 건 모이기 전에는 상한 사용
+     */
+    @Test
+    void policy() {
+        AdaptiveTimeoutPolicy policy = new AdaptiveTimeoutPolicy(new SimpleMeterRegistry(), 2, 10, 0.99, 3, 100, 10);
+        assertThat(policy.getTimeoutSeconds("fast")).isEqualTo(10);
+
+        for (int i = 0; i < 9; i++) {
+            policy.recordLatency("fast", TimeUnit.MILLISECONDS.toNanos(100));
+        }
+        assertThat(policy.getTimeoutSeconds("fast")).isEqualTo(10);
+        policy.recordLatency("fast", TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(policy.getTimeoutSeconds("fast")).isEqualTo(2);
+
+        for (int i = 0; i < 10; i++) {
+            policy.recordLatency("medium", TimeUnit.MILLISECONDS.toNanos(1500));
+        }
+        assertThat(policy.getTimeoutSeconds("medium")).isEqualTo(5);
+
+        for (int i = 0; i < 10; i++) {
+            policy.recordLatency("slow", TimeUnit.SECONDS.toNanos(20));
+        }
+        assertThat(policy.getTimeoutSeconds("slow")).isEqualTo(10);
+    }
+
+    private double timeouts() {
+        Counter counter = registry.find("transaction.timeouts").tag("name", SLOW).counter();
+        return (counter != null ? counter.count() : 0);
+    }
+
+    @TestConfiguration
+    static class SlowConfig {
+        @Bean
+        SlowService slowService(EntityManager em) {
+            return new SlowService(em);
+        }
+    }
+
+    static class SlowService {
+
+        private final EntityManager em;
+
+        SlowService(EntityManager em) {
+            this.em = em;
+        }
+
+        @Transactional
+        public List<?> slowRows(int rows) {
+            return em.createNativeQuery("select SLOW_ROW(" + SLOW_ROW_MILLIS + ") from SYSTEM_RANGE(1, ?1)")
+                    .setParameter(1, rows)
+                    .getResultList();
+        }
+
+        @Transactional(timeout = 5)
+        public void explicit() {
+        }
+    }
+
+    /**
+     * H2 에서 호출하는 함수 (public 클래스의 public static 메서드여야 함)
+     */
+    public static class SlowFunctions {
+
+        public static int slowRow(int millis) throws InterruptedException {
+            Thread.sleep(millis);
+            return millis;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package hello.springtx.lint;
+
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.IdentifierTree;
+import com.sun.source.tree.MemberSelectTree;
+import com.sun.source.tree.MethodInvocationTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.util.TreePath;
+import com.sun.source.util.TreePathScanner;
+import com.sun.source.util.Trees;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * TransactionalPitfallProcessor
+ - @Transactional 이 조용히 무시되는 코드를 컴파일 시점에 찾아서 오류(또는 경고)로 보고
+ - 컴파일할 때만 사용하고 애플리케이션에는 포함되지 않으므로 실행 시점 비용이 없음
+
+ * 검사 항목
+ - 내부 호출 : 같은 객체의 @Transactional 메서드를 this 로 호출 (InternalCallV1Test)
+ -> 프록시를 거치지 않으므로 트랜잭션이 시작되지 않고, 각 SQL 이 자동 커밋으로 실행됨
+ - 초기화 시점 : @PostConstruct 메서드에 @Transactional 을 붙이거나, @PostConstruct 에서 @Transactional 메서드를 내부 호출 (InitTxTest)
+ -> 초기화 코드가 트랜잭션 AOP 가 적용되기 전에 호출되기 때문
+
+ * 옵션
+ - -Aspringtx.txlint.severity=ERROR|WARNING (기본 ERROR)
+ - 의도한 경우 메서드나 클래스에 @SuppressWarnings("tx-self-invocation") 로 제외
+ */
+@SupportedAnnotationTypes("*")
+@SupportedOptions(TransactionalPitfallProcessor.SEVERITY_OPTION)
+public class TransactionalPitfallProcessor extends AbstractProcessor {
+
+    static final String SEVERITY_OPTION = "springtx.txlint.severity";
+    static final String SUPPRESS_KEY = "tx-self-invocation";
+
+    private static final Set<String> TRANSACTIONAL = Set.of(
+            "org.springframework.transaction.annotation.Transactional",
+            "jakarta.transaction.Transactional");
+    private static final Set<String> POST_CONSTRUCT = Set.of(
+            "jakarta.annotation.PostConstruct",
+            "javax.annotation.PostConstruct");
+
+    private Trees trees;
+    private Diagnostic.Kind severity;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        this.trees = Trees.instance(processingEnv);
+        String option = processingEnv.getOptions().get(SEVERITY_OPTION);
+        this.severity = "WARNING".equalsIgnoreCase(option) ? Diagnostic.Kind.WARNING : Diagnostic.Kind.ERROR;
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    //다른 프로세서(lombok 등)가 처리할 수 있도록 애노테이션을 점유하지 않음
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getRootElements()) {
+            if (element instanceof TypeElement type) {
+                TreePath path = trees.getPath(type);
+                if (path != null) {
+                    new PitfallScanner().scan(path, null);
+                }
+            }
+        }
+        return false;
+    }
+
+    private class PitfallScanner extends TreePathScanner<Void, Void> {
+
+        private TypeElement currentType;
+        private ExecutableElement currentMethod;
+
+        @Override
+        public Void visitClass(ClassTree node, Void unused) {
+            TypeElement previous = currentType;
+            ExecutableElement previousMethod = currentMethod;
+            Element element = trees.getElement(getCurrentPath());
+            //익명 클래스, 내부 클래스 안의 this 호출은 해당 클래스 기준으로 검사
+            if (element instanceof TypeElement type) {
+                currentType = type;
+                currentMethod = null;
+            }
+            try {
+                return super.visitClass(node, unused);
+            } finally {
+                currentType = previous;
+                currentMethod = previousMethod;
+            }
+        }
+
+        @Override
+        public Void visitMethod(MethodTree node, Void unused) {
+            ExecutableElement previous = currentMethod;
+            Element element = trees.getElement(getCurrentPath());
+            currentMethod = (element instanceof ExecutableElement method ? method : null);
+            try {
+                if (currentMethod != null && isPostConstruct(currentMethod)
+                        && (isTransactional(currentMethod) || isTransactional(currentType))
+                        && !isSuppressed(currentMethod)) {
+                    report("@PostConstruct 메서드에는 트랜잭션이 적용되지 않습니다 (초기화 시점에는 트랜잭션 AOP 가 아직 적용되지 않음). "
+                            + "@EventListener(ApplicationReadyEvent.class) 를 사용하세요: " + describe(currentMethod), currentMethod);
+                }
+                return super.visitMethod(node, unused);
+            } finally {
+                currentMethod = previous;
+            }
+        }
+
+        @Override
+        public Void visitMethodInvocation(MethodInvocationTree node, Void unused) {
+            if (currentType != null && currentMethod != null && isSelfCall(node.getMethodSelect())) {
+                Element invoked = trees.getElement(getCurrentPath());
+                if (invoked instanceof ExecutableElement callee
+                        && !callee.getModifiers().contains(Modifier.STATIC)
+                        && callee.getKind() == ElementKind.METHOD
+                        && isTransactional(callee)
+                        && isMemberOf(callee, currentType)
+                        && !isSuppressed(currentMethod)) {
+                    String where = isPostConstruct(currentMethod) ? "@PostConstruct 메서드" : "같은 클래스";
+                    reportAt(where + "에서 @Transactional 메서드를 내부 호출하면 프록시를 거치지 않아 트랜잭션이 적용되지 않습니다. "
+                            + "별도 빈으로 분리하세요: " + describe(currentMethod) + " -> " + describe(callee), node);
+                }
+            }
+            return super.visitMethodInvocation(node, unused);
+        }
+
+        //method(), this.method() 만 내부 호출로 판단 (다른 객체의 메서드 호출은 프록시를 거침)
+        private boolean isSelfCall(Tree methodSelect) {
+            if (methodSelect instanceof IdentifierTree) {
+                return true;
+            }
+            return methodSelect instanceof MemberSelectTree select
+                    && select.getExpression() instanceof IdentifierTree receiver
+                    && receiver.getName().contentEquals("this");
+        }
+
+        private boolean isMemberOf(ExecutableElement callee, TypeElement type) {
+            TypeMirror owner = processingEnv.getTypeUtils().erasure(callee.getEnclosingElement().asType());
+            TypeMirror current = processingEnv.getTypeUtils().erasure(type.asType());
+            return processingEnv.getTypeUtils().isSubtype(current, owner);
+        }
+
+        private void report(String message, Element element) {
+            processingEnv.getMessager().printMessage(severity, message, element);
+        }
+
+        private void reportAt(String message, Tree tree) {
+            trees.printMessage(severity, message, tree, getCurrentPath().getCompilationUnit());
+        }
+    }
+
+    private static boolean isTransactional(Element element) {
+        return element != null && hasAnnotation(element, TRANSACTIONAL);
+    }
+
+    private static boolean isPostConstruct(Element element) {
+        return hasAnnotation(element, POST_CONSTRUCT);
+    }
+
+    private static boolean hasAnnotation(Element element, Set<String> names) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+            if (names.contains(annotationType.getQualifiedName().toString())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //메서드 또는 메서드를 감싸는 클래스에 @SuppressWarnings("tx-self-invocation") 이 있으면 제외
+    private static boolean isSuppressed(Element element) {
+        for (Element current = element; current != null; current = current.getEnclosingElement()) {
+            SuppressWarnings suppress = current.getAnnotation(SuppressWarnings.class);
+            if (suppress != null && Arrays.asList(suppress.value()).contains(SUPPRESS_KEY)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String describe(ExecutableElement method) {
+        return method.getEnclosingElement().getSimpleName() + "." + method.getSimpleName() + "()";
+    }
+}
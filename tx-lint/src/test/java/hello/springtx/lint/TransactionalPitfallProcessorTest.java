@@ -0,0 +1,171 @@
+package hello.springtx.lint;
+
+import org.junit.jupiter.api.Test;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * TransactionalPitfallProcessor
+ - 예제 소스를 메모리에서 컴파일하고 보고된 진단 메시지를 확인
+ - 스프링 의존성 없이 검사하기 위해 @Transactional, @PostConstruct 는 같은 이름의 애노테이션을 함께 컴파일
+ */
+class TransactionalPitfallProcessorTest {
+
+    static final String TRANSACTIONAL = """
+            package org.springframework.transaction.annotation;
+            public @interface Transactional {}
+            """;
+
+    static final String POST_CONSTRUCT = """
+            package jakarta.annotation;
+            public @interface PostConstruct {}
+            """;
+
+    @Test
+    void internalCall() throws IOException {
+        List<Diagnostic<? extends JavaFileObject>> diagnostics = compile(List.of("-proc:only"), """
+                package sample;
+                import org.springframework.transaction.annotation.Transactional;
+                public class CallService {
+                    public void external() {
+                        internal();
+                    }
+                    public void externalThis() {
+                        this.internal();
+                    }
+                    @Transactional
+                    public void internal() {
+                    }
+                }
+                """);
+
+        assertThat(errors(diagnostics)).hasSize(2)
+                .allMatch(message -> message.contains("CallService.internal()"));
+    }
+
+    @Test
+    void otherBeanCall() throws IOException {
+        List<Diagnostic<? extends JavaFileObject>> diagnostics = compile(List.of("-proc:only"), """
+                package sample;
+                import org.springframework.transaction.annotation.Transactional;
+                public class CallService {
+                    private final InternalService internalService = new InternalService();
+                    public void external() {
+                        internalService.internal();
+                    }
+                    static class InternalService {
+                        @Transactional
+                        public void internal() {
+                        }
+                    }
+                }
+                """);
+
+        assertThat(errors(diagnostics)).isEmpty();
+    }
+
+    @Test
+    void postConstruct() throws IOException {
+        List<Diagnostic<? extends JavaFileObject>> diagnostics = compile(List.of("-proc:only"), """
+                package sample;
+                import jakarta.annotation.PostConstruct;
+                import org.springframework.transaction.annotation.Transactional;
+                public class Hello {
+                    @PostConstruct
+                    @Transactional
+                    public void initV1() {
+                    }
+                }
+                """);
+
+        assertThat(errors(diagnostics)).singleElement()
+                .satisfies(message -> assertThat(message).contains("@PostConstruct", "Hello.initV1()"));
+    }
+
+    @Test
+    void suppressed() throws IOException {
+        List<Diagnostic<? extends JavaFileObject>> diagnostics = compile(List.of("-proc:only"), """
+                package sample;
+                import org.springframework.transaction.annotation.Transactional;
+                @SuppressWarnings("tx-self-invocation")
+                public class CallService {
+                    public void external() {
+                        internal();
+                    }
+                    @Transactional
+                    public void internal() {
+                    }
+                }
+                """);
+
+        assertThat(errors(diagnostics)).isEmpty();
+    }
+
+    @Test
+    void warningSeverity() throws IOException {
+        List<Diagnostic<? extends JavaFileObject>> diagnostics = compile(
+                List.of("-proc:only", "-Aspringtx.txlint.severity=WARNING"), """
+                package sample;
+                import org.springframework.transaction.annotation.Transactional;
+                public class CallService {
+                    public void external() {
+                        internal();
+                    }
+                    @Transactional
+                    public void internal() {
+                    }
+                }
+                """);
+
+        assertThat(errors(diagnostics)).isEmpty();
+        assertThat(diagnostics).anyMatch(d -> d.getKind() == Diagnostic.Kind.WARNING
+                && d.getMessage(null).contains("CallService.internal()"));
+    }
+
+    private List<Diagnostic<? extends JavaFileObject>> compile(List<String> options, String source) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        Path output = Files.createTempDirectory("tx-lint");
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null)) {
+            List<String> allOptions = new ArrayList<>(options);
+            allOptions.addAll(List.of("-d", output.toString()));
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, allOptions, null,
+                    List.of(source("Transactional", TRANSACTIONAL), source("PostConstruct", POST_CONSTRUCT),
+                            source("Sample", source)));
+            task.setProcessors(List.of(new TransactionalPitfallProcessor()));
+            task.call();
+        }
+        return diagnostics.getDiagnostics();
+    }
+
+    private static List<String> errors(List<Diagnostic<? extends JavaFileObject>> diagnostics) {
+        return diagnostics.stream()
+                .filter(d -> d.getKind() == Diagnostic.Kind.ERROR)
+                .map(d -> d.getMessage(null))
+                .toList();
+    }
+
+    private static JavaFileObject source(String name, String code) {
+        return new SimpleJavaFileObject(URI.create("string:///" + name + JavaFileObject.Kind.SOURCE.extension),
+                JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return code;
+            }
+        };
+    }
+}